@@ -0,0 +1,88 @@
+package minemaze;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Square arenas for the benchmarks: a border all around, the pusher in the top left corner, a column of
+ * targets on the right and the given number of ores and boulders scattered with a fixed seed, so every
+ * run measures the same board.
+ */
+final class BenchmarkMaps {
+    private static final long SEED = 30006;
+
+    private BenchmarkMaps() {
+    }
+
+    /**
+     * @return the map row by row, size characters per row
+     */
+    static String map(int size, int actors) {
+        char[] cells = new char[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean isEdge = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+                cells[y * size + x] = isEdge ? ElementType.BORDER.getMapElement() : ElementType.EMPTY.getMapElement();
+            }
+        }
+        cells[size + 1] = ElementType.PUSHER.getMapElement();
+        cells[(size - 2) * size + 1] = ElementType.BOMBER.getMapElement();
+        for (int y = 1; y < size - 1 && y <= actors; y++) {
+            cells[y * size + size - 2] = ElementType.TARGET.getMapElement();
+        }
+        for (int cell : freeCells(size, actors, 1)) {
+            cells[cell] = ElementType.BOULDER.getMapElement();
+        }
+        return new String(cells);
+    }
+
+    /**
+     * Properties for an auto-mode game on {@link #map(int, int)}: the ores come from the properties and the
+     * pusher sweeps the arena row by row for the given number of ticks
+     */
+    static Properties properties(int size, int actors, int ticks) {
+        Properties properties = new Properties();
+        properties.setProperty("movement.mode", "auto");
+        properties.setProperty("simulationPeriod", "50");
+        properties.setProperty("duration", String.valueOf(ticks * 50 / 1000));
+        properties.setProperty("bomb.max", "3");
+        properties.setProperty("ores.winning", String.valueOf(actors + 1));
+        properties.setProperty("clock.mode", GameClock.VIRTUAL_MODE);
+
+        StringBuilder ores = new StringBuilder();
+        for (int cell : freeCells(size, actors, 2)) {
+            ores.append(cell % size).append('-').append(cell / size).append(';');
+        }
+        properties.setProperty("ore.locations", ores.toString());
+
+        StringBuilder movements = new StringBuilder();
+        for (int step = 0; step < ticks; step++) {
+            int row = 1 + step / (size - 3) % (size - 2);
+            int column = step % (size - 3);
+            int x = row % 2 == 1 ? 1 + column : size - 3 - column;
+            movements.append(x).append('-').append(row).append(';');
+        }
+        properties.setProperty("pusher.movements", movements.toString());
+        return properties;
+    }
+
+    /**
+     * Pick distinct inner cells away from the pusher's row and column and the target column. The ores and the
+     * boulders use different salts so they never share a cell.
+     */
+    private static List<Integer> freeCells(int size, int count, int salt) {
+        List<Integer> cells = new ArrayList<>();
+        for (int y = 2; y < size - 2; y++) {
+            for (int x = 2; x < size - 2; x++) {
+                if ((x + y) % 2 == salt % 2) {
+                    cells.add(y * size + x);
+                }
+            }
+        }
+        Collections.shuffle(cells, new Random(SEED + salt));
+        return cells.subList(0, Math.min(count, cells.size()));
+    }
+}
@@ -0,0 +1,70 @@
+package minemaze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code canMoveWithOrePushing} for every cell of the board. Pushing moves ores, so each sweep first puts
+ * them back; that is one write per ore against a check per cell, so it hardly shows in the score, whereas a
+ * per-invocation setup would add its own timing overhead to every sweep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollisionBenchmark {
+    @Param({"20", "64", "256"})
+    public int mapSize;
+
+    @Param({"4", "16", "64"})
+    public int actors;
+
+    private GameEngine engine;
+    private ActorLayer ores;
+    private int[] oreXs;
+    private int[] oreYs;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(BenchmarkMaps.properties(mapSize, actors, 1),
+                new MapGrid(mapSize, mapSize, BenchmarkMaps.map(mapSize, actors)));
+        ores = engine.getLayer(ElementType.ORE);
+        oreXs = new int[ores.size()];
+        oreYs = new int[ores.size()];
+        for (int i = 0; i < ores.size(); i++) {
+            oreXs[i] = ores.getX(i);
+            oreYs[i] = ores.getY(i);
+        }
+    }
+
+    private void resetOres() {
+        for (int i = 0; i < oreXs.length; i++) {
+            ores.setLocation(i, oreXs[i], oreYs[i]);
+            ores.show(i);
+        }
+    }
+
+    @Benchmark
+    public void sweepBoard(Blackhole blackhole) {
+        resetOres();
+        for (int y = 0; y < mapSize; y++) {
+            for (int x = 0; x < mapSize; x++) {
+                blackhole.consume(engine.canMoveWithOrePushing(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package minemaze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A complete auto-mode game on a {@link VirtualClock}, so only the ticks are measured and not the sleeps
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+    private static final int TICKS = 1000;
+
+    @Param({"20", "64", "256"})
+    public int mapSize;
+
+    @Param({"4", "16", "64"})
+    public int actors;
+
+    private Properties properties;
+    private MapGrid grid;
+
+    @Setup
+    public void setUp() {
+        properties = BenchmarkMaps.properties(mapSize, actors, TICKS);
+        grid = new MapGrid(mapSize, mapSize, BenchmarkMaps.map(mapSize, actors));
+    }
+
+    @Benchmark
+    public String autoGame() {
+        GameEngine engine = new GameEngine(properties, grid);
+        engine.setClock(new VirtualClock());
+        return engine.run();
+    }
+}
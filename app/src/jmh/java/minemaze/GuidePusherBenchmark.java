@@ -0,0 +1,59 @@
+package minemaze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path requests from the pusher's corner to targets all over the board. With more distinct targets than
+ * the planner caches, this mixes cache hits with fresh distance fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GuidePusherBenchmark {
+    private static final int TARGETS = 16;
+
+    @Param({"20", "64", "256"})
+    public int mapSize;
+
+    @Param({"4", "16", "64"})
+    public int actors;
+
+    private GameEngine engine;
+    private int[] targetXs;
+    private int[] targetYs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(BenchmarkMaps.properties(mapSize, actors, 1),
+                new MapGrid(mapSize, mapSize, BenchmarkMaps.map(mapSize, actors)));
+        targetXs = new int[TARGETS];
+        targetYs = new int[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            // Spread along the diagonal; some of these land on boulders and take the fallback path
+            targetXs[i] = 1 + i * (mapSize - 3) / (TARGETS - 1);
+            targetYs[i] = mapSize - 2 - i * (mapSize - 3) / (TARGETS - 1);
+        }
+    }
+
+    @Benchmark
+    public void guidePusher() {
+        next = (next + 1) % TARGETS;
+        engine.guidePusherToLocation(targetXs[next], targetYs[next]);
+    }
+}
@@ -0,0 +1,52 @@
+package minemaze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting one log line, the work {@code updateLogResult} does every tick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogLineBenchmark {
+    @Param({"20", "64", "256"})
+    public int mapSize;
+
+    @Param({"4", "16", "64"})
+    public int actors;
+
+    private final StringBuilder line = new StringBuilder();
+    private ActorLayer[] layers;
+
+    @Setup
+    public void setUp() {
+        GameEngine engine = new GameEngine(BenchmarkMaps.properties(mapSize, actors, 1),
+                new MapGrid(mapSize, mapSize, BenchmarkMaps.map(mapSize, actors)));
+        layers = new ActorLayer[ElementType.values().length];
+        for (ElementType type : ElementType.values()) {
+            layers[type.ordinal()] = engine.getLayer(type);
+        }
+    }
+
+    @Benchmark
+    public int appendLogLine() {
+        line.setLength(0);
+        GameEngine.appendLogLine(line, 1, layers);
+        return line.length();
+    }
+}
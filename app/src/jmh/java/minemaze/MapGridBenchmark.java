@@ -0,0 +1,44 @@
+package minemaze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a {@link MapGrid} from its map string
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapGridBenchmark {
+    @Param({"20", "64", "256"})
+    public int mapSize;
+
+    @Param({"4", "16", "64"})
+    public int actors;
+
+    private String map;
+
+    @Setup
+    public void setUp() {
+        map = BenchmarkMaps.map(mapSize, actors);
+    }
+
+    @Benchmark
+    public MapGrid generatedMap() {
+        return new MapGrid(mapSize, mapSize, map);
+    }
+}
@@ -0,0 +1,330 @@
+package minemaze;
+
+/**
+ * Locations and visibility of all actors of one {@link ElementType}.
+ * Actors keep the order in which they were added, which is the order the log lists them in.
+ * An occupancy bit set of the cells holding a visible actor is kept up to date on every change,
+ * so collision checks do not have to scan the actors. The visible actors are also indexed by cell in an
+ * open-addressing table, so finding the actor in a cell costs the same on a crowded map as on an empty one.
+ * All of it is held in copy-on-write arrays, so a {@link State} taken with {@link #freeze()} shares them
+ * until the layer next changes them.
+ */
+class ActorLayer {
+    private static final int EMPTY = -1;
+
+    /**
+     * The content of a layer at one moment; never changes
+     */
+    static final class State {
+        private final CowIntArray.Frozen xs;
+        private final CowIntArray.Frozen ys;
+        private final CowIntArray.Frozen visible;
+        private final CowIntArray.Frozen nextInCell;
+        private final CowIntArray.Frozen cellKeys;
+        private final CowIntArray.Frozen cellHeads;
+        private final CowIntArray.Frozen occupied;
+        private final int size;
+        private final int cellShift;
+        private final int cellCount;
+        private final long hash;
+
+        private State(ActorLayer layer) {
+            xs = layer.xs.freeze();
+            ys = layer.ys.freeze();
+            visible = layer.visible.freeze();
+            nextInCell = layer.nextInCell.freeze();
+            cellKeys = layer.cellKeys.freeze();
+            cellHeads = layer.cellHeads.freeze();
+            occupied = layer.occupied.freeze();
+            size = layer.size;
+            cellShift = layer.cellShift;
+            cellCount = layer.cellCount;
+            hash = layer.hash;
+        }
+    }
+
+    private final ElementType type;
+    private final int width;
+    private final CellBitSet occupied;
+    private final CowIntArray xs = new CowIntArray(1);
+    private final CowIntArray ys = new CowIntArray(1);
+    // 1 for a visible actor
+    private final CowIntArray visible = new CowIntArray(1);
+    private int size;
+    // Cell index: packed cell (y * width + x) to the lowest index of a visible actor there, with linear probing
+    private CowIntArray cellKeys = new CowIntArray(1, EMPTY);
+    private CowIntArray cellHeads = new CowIntArray(1);
+    private int cellShift = Integer.SIZE - Integer.numberOfTrailingZeros(cellKeys.length());
+    private int cellCount;
+    // The next higher index of a visible actor in the same cell, or EMPTY
+    private final CowIntArray nextInCell = new CowIntArray(1);
+    // Incremented whenever an actor may have appeared, disappeared or moved
+    private int version;
+    // Sum of the state hash keys of the visible actors
+    private long hash;
+
+    ActorLayer(ElementType type, int width, int height) {
+        this.type = type;
+        this.width = width;
+        occupied = new CellBitSet(width, height);
+    }
+
+    public ElementType getType() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add a visible actor and return its index in the layer
+     */
+    public int add(int x, int y) {
+        if (size == xs.length()) {
+            xs.grow(size + 1);
+            ys.grow(size + 1);
+            visible.grow(size + 1);
+            nextInCell.grow(size + 1);
+        }
+        xs.set(size, x);
+        ys.set(size, y);
+        visible.set(size, 1);
+        occupy(size);
+        return size++;
+    }
+
+    public int getX(int index) {
+        return xs.get(index);
+    }
+
+    public int getY(int index) {
+        return ys.get(index);
+    }
+
+    public boolean isVisible(int index) {
+        return visible.get(index) != 0;
+    }
+
+    public void setLocation(int index, int x, int y) {
+        if (xs.get(index) == x && ys.get(index) == y) {
+            return;
+        }
+        boolean isVisible = isVisible(index);
+        if (isVisible) {
+            vacate(index);
+        }
+        xs.set(index, x);
+        ys.set(index, y);
+        if (isVisible) {
+            occupy(index);
+        } else {
+            // Nothing is occupied, but a replay still has to see the move
+            version++;
+        }
+    }
+
+    public void show(int index) {
+        if (!isVisible(index)) {
+            visible.set(index, 1);
+            occupy(index);
+        }
+    }
+
+    public void hide(int index) {
+        if (isVisible(index)) {
+            visible.set(index, 0);
+            vacate(index);
+        }
+    }
+
+    /**
+     * Add a visible actor to the index of its cell, keeping the actors of a cell in index order
+     */
+    private void occupy(int index) {
+        version++;
+        int x = xs.get(index);
+        int y = ys.get(index);
+        hash += StateHash.actorKey(type, x, y);
+        if (!occupied.isInside(x, y)) {
+            return;
+        }
+        int cell = y * width + x;
+        int slot = findSlot(cell);
+        int head = cellHeads.get(slot);
+        if (cellKeys.get(slot) == EMPTY) {
+            cellKeys.set(slot, cell);
+            cellHeads.set(slot, index);
+            nextInCell.set(index, EMPTY);
+            occupied.set(x, y);
+            if (++cellCount * 2 > cellKeys.length()) {
+                growCells();
+            }
+        } else if (index < head) {
+            nextInCell.set(index, head);
+            cellHeads.set(slot, index);
+        } else {
+            int previous = head;
+            while (nextInCell.get(previous) != EMPTY && nextInCell.get(previous) < index) {
+                previous = nextInCell.get(previous);
+            }
+            nextInCell.set(index, nextInCell.get(previous));
+            nextInCell.set(previous, index);
+        }
+    }
+
+    /**
+     * Remove an actor from the index of its cell; the cell stays occupied while another visible actor is there
+     */
+    private void vacate(int index) {
+        version++;
+        int x = xs.get(index);
+        int y = ys.get(index);
+        hash -= StateHash.actorKey(type, x, y);
+        if (!occupied.isInside(x, y)) {
+            return;
+        }
+        int slot = findSlot(y * width + x);
+        int head = cellHeads.get(slot);
+        if (head != index) {
+            int previous = head;
+            while (nextInCell.get(previous) != index) {
+                previous = nextInCell.get(previous);
+            }
+            nextInCell.set(previous, nextInCell.get(index));
+        } else if (nextInCell.get(index) != EMPTY) {
+            cellHeads.set(slot, nextInCell.get(index));
+        } else {
+            occupied.clear(x, y);
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * @return the slot holding the cell, or the empty slot where it would go
+     */
+    private int findSlot(int cell) {
+        int mask = cellKeys.length() - 1;
+        int slot = (cell * 0x9e3779b9) >>> cellShift;
+        for (int key = cellKeys.get(slot); key != EMPTY && key != cell; key = cellKeys.get(slot)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empty a slot and move later entries of the probe run back into it, so lookups never stop early
+     */
+    private void removeSlot(int hole) {
+        int mask = cellKeys.length() - 1;
+        for (int slot = (hole + 1) & mask; cellKeys.get(slot) != EMPTY; slot = (slot + 1) & mask) {
+            int home = (cellKeys.get(slot) * 0x9e3779b9) >>> cellShift;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                cellKeys.set(hole, cellKeys.get(slot));
+                cellHeads.set(hole, cellHeads.get(slot));
+                hole = slot;
+            }
+        }
+        cellKeys.set(hole, EMPTY);
+        cellCount--;
+    }
+
+    private void growCells() {
+        CowIntArray oldKeys = cellKeys;
+        CowIntArray oldHeads = cellHeads;
+        cellKeys = new CowIntArray(oldKeys.length() * 2, EMPTY);
+        cellHeads = new CowIntArray(oldKeys.length() * 2);
+        cellShift--;
+        for (int i = 0; i < oldKeys.length(); i++) {
+            int key = oldKeys.get(i);
+            if (key != EMPTY) {
+                int slot = findSlot(key);
+                cellKeys.set(slot, key);
+                cellHeads.set(slot, oldHeads.get(i));
+            }
+        }
+    }
+
+    /**
+     * Capture the layer in O(1)
+     */
+    State freeze() {
+        return new State(this);
+    }
+
+    /**
+     * Go back to a captured state of this layer. The version moves on rather than back,
+     * so nothing cached against a later version is taken as current.
+     */
+    void restore(State state) {
+        xs.restore(state.xs);
+        ys.restore(state.ys);
+        visible.restore(state.visible);
+        nextInCell.restore(state.nextInCell);
+        cellKeys.restore(state.cellKeys);
+        cellHeads.restore(state.cellHeads);
+        occupied.restore(state.occupied);
+        size = state.size;
+        cellShift = state.cellShift;
+        cellCount = state.cellCount;
+        hash = state.hash;
+        version++;
+    }
+
+    /**
+     * @return a counter that changes whenever an actor of this layer appears, disappears or moves, hidden or not
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the Zobrist hash of the visible actors' cells, kept up to date on every change
+     * @see StateHash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Check whether a visible actor of this layer is at the given cell. Hidden actors are ignored,
+     * the same way GameGrid.getOneActorAt ignores them.
+     */
+    public boolean isOccupied(int x, int y) {
+        return occupied.get(x, y);
+    }
+
+    /**
+     * Find a visible actor at the given cell
+     *
+     * @return the index of the actor, or -1 if there is none
+     */
+    public int indexAt(int x, int y) {
+        if (!occupied.get(x, y)) {
+            return -1;
+        }
+        return cellHeads.get(findSlot(y * width + x));
+    }
+
+    /**
+     * @return the next higher index of a visible actor in the same cell as the given visible actor, or -1
+     */
+    public int nextIndexInCell(int index) {
+        return nextInCell.get(index);
+    }
+
+    /**
+     * Append the locations of the visible actors in the log format, e.g. ":4-7,5-2".
+     * Nothing is appended when no actor is visible.
+     */
+    public void appendLocations(StringBuilder stringBuilder) {
+        boolean hasAddedColon = false;
+        for (int i = 0; i < size; i++) {
+            if (isVisible(i)) {
+                stringBuilder.append(hasAddedColon ? ',' : ':');
+                hasAddedColon = true;
+                stringBuilder.append(xs.get(i)).append('-').append(ys.get(i));
+            }
+        }
+    }
+}
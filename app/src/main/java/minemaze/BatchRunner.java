@@ -0,0 +1,357 @@
+package minemaze;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs many properties scenarios in one JVM. Every scenario gets its own headless {@link GameEngine}
+ * on a {@link VirtualClock}, and the games run concurrently on a fixed thread pool.
+ * <p>
+ * Usage: {@code BatchRunner [--threads N] [--out DIR] <scenario file, directory or zip pack>...}
+ * Zip packs are loaded with {@link ScenarioPack}. Given more than one input, the logs of each go into a folder
+ * named after the input and its position, such as {@code 2-levels}, so inputs holding files of the same name
+ * do not write the same log.
+ */
+public class BatchRunner {
+    public static final String PROPERTIES_EXTENSION = ".properties";
+    public static final String SUMMARY_FILE = "summary.txt";
+
+    public enum Outcome { WON, LOST, UNFINISHED, ERROR }
+
+    /**
+     * Outcome of one scenario
+     */
+    public static class Result {
+        private final Path scenario;
+        private final Path name;
+        private final Outcome outcome;
+        private final int ticks;
+        private final int oresCollected;
+        private final long elapsedMillis;
+        private final String logResult;
+        private final String error;
+
+        Result(Path scenario, Path name, Outcome outcome, int ticks, int oresCollected, long elapsedMillis,
+               String logResult, String error) {
+            this.scenario = scenario;
+            this.name = name;
+            this.outcome = outcome;
+            this.ticks = ticks;
+            this.oresCollected = oresCollected;
+            this.elapsedMillis = elapsedMillis;
+            this.logResult = logResult;
+            this.error = error;
+        }
+
+        public Path getScenario() { return scenario; }
+        /** The scenario's path in the directory or pack it came from, or its file name; see {@link #main} */
+        public Path getName() { return name; }
+        public Outcome getOutcome() { return outcome; }
+        public int getTicks() { return ticks; }
+        public int getOresCollected() { return oresCollected; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public String getLogResult() { return logResult; }
+        public String getError() { return error; }
+    }
+
+    private final int threads;
+
+    public BatchRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchRunner(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path outputDir = Paths.get("batch-output");
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--out")) {
+                outputDir = Paths.get(args[++i]);
+            } else {
+                inputs.add(Paths.get(args[i]));
+            }
+        }
+
+        // Every log name is settled before any game is played
+        List<ScenarioPack> packs = new ArrayList<>();
+        List<Path> packFolders = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        List<Path> fileNames = new ArrayList<>();
+        List<Path> names = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            Path input = inputs.get(i);
+            Path folder = inputs.size() == 1 ? null : inputFolder(i, input);
+            if (input.toString().endsWith(ScenarioPack.ZIP_EXTENSION)) {
+                ScenarioPack pack = ScenarioPack.load(input);
+                packs.add(pack);
+                packFolders.add(folder);
+                for (ScenarioPack.Entry entry : pack.getEntries()) {
+                    names.add(inFolder(folder, Paths.get(entry.getName())));
+                }
+            } else {
+                for (Path file : collectScenarios(Collections.singletonList(input))) {
+                    files.add(file);
+                    fileNames.add(inFolder(folder, file.getFileName()));
+                }
+            }
+        }
+        names.addAll(fileNames);
+        checkLogNames(names, outputDir);
+
+        BatchRunner runner = new BatchRunner(threads);
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < packs.size(); i++) {
+            results.addAll(runner.run(packs.get(i), packFolders.get(i)));
+        }
+        results.addAll(runner.run(files, fileNames));
+        System.out.println(summary(results));
+        writeResults(results, outputDir);
+    }
+
+    /**
+     * @return the folder for the logs of one of several inputs: its position from 1 and its name without
+     * the pack extension
+     */
+    private static Path inputFolder(int index, Path input) {
+        String name = input.getFileName() == null ? "input" : input.getFileName().toString();
+        if (name.endsWith(ScenarioPack.ZIP_EXTENSION)) {
+            name = name.substring(0, name.length() - ScenarioPack.ZIP_EXTENSION.length());
+        }
+        return Paths.get((index + 1) + "-" + name);
+    }
+
+    private static Path inFolder(Path folder, Path name) {
+        return folder == null ? name : folder.resolve(name);
+    }
+
+    /**
+     * Expand directories into the properties files they contain, in name order
+     */
+    public static List<Path> collectScenarios(List<Path> inputs) throws IOException {
+        List<Path> scenarios = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> files = Files.list(input)) {
+                    scenarios.addAll(files
+                            .filter(file -> file.getFileName().toString().endsWith(PROPERTIES_EXTENSION))
+                            .sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else {
+                scenarios.add(input);
+            }
+        }
+        return scenarios;
+    }
+
+    /**
+     * Run all scenarios on the pool and wait for them to finish
+     *
+     * @return one result per scenario, in the same order
+     */
+    public List<Result> run(List<Path> scenarios) {
+        List<Path> names = new ArrayList<>();
+        for (Path scenario : scenarios) {
+            names.add(scenario.getFileName());
+        }
+        return run(scenarios, names);
+    }
+
+    /**
+     * Run all scenarios on the pool under the given names and wait for them to finish
+     *
+     * @param names the name of each scenario's result, in the same order
+     * @return one result per scenario, in the same order
+     */
+    public List<Result> run(List<Path> scenarios, List<Path> names) {
+        if (names.size() != scenarios.size()) {
+            throw new IllegalArgumentException(scenarios.size() + " scenarios but " + names.size() + " names");
+        }
+        List<Callable<Result>> games = new ArrayList<>();
+        for (int i = 0; i < scenarios.size(); i++) {
+            Path scenario = scenarios.get(i);
+            Path name = names.get(i);
+            games.add(() -> runScenario(scenario, name));
+        }
+        return runAll(games);
+    }
+
+    /**
+     * Run the scenarios of a pack, which are already parsed, on the pool and wait for them to finish.
+     * Entries that did not load get an error result.
+     *
+     * @return one result per entry, in the same order
+     */
+    public List<Result> run(ScenarioPack pack) {
+        return run(pack, null);
+    }
+
+    /**
+     * Run the scenarios of a pack with their names in the given folder
+     *
+     * @param folder where the pack's names go, or null to keep them as they are
+     * @see #run(ScenarioPack)
+     */
+    public List<Result> run(ScenarioPack pack, Path folder) {
+        List<Callable<Result>> games = new ArrayList<>();
+        for (ScenarioPack.Entry entry : pack.getEntries()) {
+            Path name = inFolder(folder, Paths.get(entry.getName()));
+            games.add(() -> entry.getScenario() == null
+                    ? new Result(name, name, Outcome.ERROR, 0, 0, 0, "", entry.getError())
+                    : play(name, name, entry.getScenario(), System.nanoTime()));
+        }
+        return runAll(games);
+    }
+
+    private List<Result> runAll(List<Callable<Result>> games) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (Callable<Result> game : games) {
+                futures.add(pool.submit(game));
+            }
+
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Result runScenario(Path scenario, Path name) {
+        long start = System.nanoTime();
+        Properties properties = PropertiesLoader.loadPropertiesFile(scenario);
+        if (properties == null) {
+            return new Result(scenario, name, Outcome.ERROR, 0, 0, 0, "", "cannot read " + scenario);
+        }
+
+        Scenario parsed;
+        try {
+            parsed = Scenario.parse(properties, MapLoader.fromProperties(properties, scenario.getParent()));
+        } catch (IOException | RuntimeException e) {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            return new Result(scenario, name, Outcome.ERROR, 0, 0, elapsedMillis, "", e.toString());
+        }
+        return play(scenario, name, parsed, start);
+    }
+
+    private static Result play(Path path, Path name, Scenario scenario, long start) {
+        try {
+            GameEngine engine = new GameEngine(scenario);
+            engine.setClock(new VirtualClock());
+            String logResult = engine.run();
+            Outcome outcome = engine.isWon() ? Outcome.WON : engine.isTimeUp() ? Outcome.LOST : Outcome.UNFINISHED;
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            return new Result(path, name, outcome, engine.getGameTick(), engine.getOresCollected(), elapsedMillis,
+                    logResult, null);
+        } catch (RuntimeException e) {
+            // A broken scenario must not take the rest of the batch down with it
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            return new Result(path, name, Outcome.ERROR, 0, 0, elapsedMillis, "", e.toString());
+        }
+    }
+
+    /**
+     * Write one log file per scenario and the summary table into the output directory. Each log is named
+     * after the scenario's path in its directory or pack, so scenarios of a pack keep its folders.
+     *
+     * @throws IllegalArgumentException when two scenarios would write the same log, before anything is written
+     */
+    public static void writeResults(List<Result> results, Path outputDir) throws IOException {
+        List<Path> names = new ArrayList<>();
+        for (Result result : results) {
+            names.add(result.getName());
+        }
+        List<Path> logFiles = checkLogNames(names, outputDir);
+
+        Files.createDirectories(outputDir);
+        for (int i = 0; i < results.size(); i++) {
+            Files.createDirectories(logFiles.get(i).getParent());
+            Files.write(logFiles.get(i), results.get(i).getLogResult().getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(outputDir.resolve(SUMMARY_FILE), summary(results).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the log file of each scenario name
+     * @throws IllegalArgumentException when two names would write the same log
+     */
+    private static List<Path> checkLogNames(List<Path> names, Path outputDir) {
+        List<Path> logFiles = new ArrayList<>();
+        Map<Path, Path> namesByLog = new HashMap<>();
+        for (Path name : names) {
+            Path logFile = outputDir.resolve(logName(name)).normalize();
+            Path other = namesByLog.putIfAbsent(logFile, name);
+            if (other != null) {
+                throw new IllegalArgumentException("Scenarios " + other + " and " + name + " would both write " +
+                        logFile);
+            }
+            logFiles.add(logFile);
+        }
+        return logFiles;
+    }
+
+    private static String logName(Path name) {
+        String logName = name.toString();
+        if (logName.endsWith(PROPERTIES_EXTENSION)) {
+            logName = logName.substring(0, logName.length() - PROPERTIES_EXTENSION.length());
+        }
+        return logName + ".log";
+    }
+
+    /**
+     * Format the results as a fixed-width table with one row per scenario and a totals line
+     */
+    public static String summary(List<Result> results) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-40s %-10s %8s %6s %10s%n", "Scenario", "Outcome", "Ticks", "Ores", "Millis"));
+        int[] counts = new int[Outcome.values().length];
+        for (Result result : results) {
+            counts[result.getOutcome().ordinal()]++;
+            table.append(String.format("%-40s %-10s %8d %6d %10d", result.getName(),
+                    result.getOutcome(), result.getTicks(), result.getOresCollected(), result.getElapsedMillis()));
+            if (result.getError() != null) {
+                table.append(" ").append(result.getError());
+            }
+            table.append(System.lineSeparator());
+        }
+        table.append("Total: ").append(results.size());
+        for (Outcome outcome : Outcome.values()) {
+            table.append(", ").append(outcome).append(": ").append(counts[outcome.ordinal()]);
+        }
+        return table.toString();
+    }
+}
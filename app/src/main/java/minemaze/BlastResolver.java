@@ -0,0 +1,88 @@
+package minemaze;
+
+import java.util.Arrays;
+
+/**
+ * Works out which cells a bomb's blast reaches and queues the bombs that detonate in a tick.
+ * <p>
+ * A blast covers the bomb's cell and the four cells next to it. Which of those are on the grid and not
+ * border is read off the border bits of the map's {@link StaticMap}, shared by every game on it, so resolving
+ * a blast never asks the grid about its neighbours. Bombs are resolved from a queue: the
+ * ones whose fuse ends in the tick go in first, and bombs caught in a blast join the end of the queue and
+ * go off in the same tick.
+ */
+class BlastResolver {
+    public static final int MAX_BLAST_CELLS = 5;
+
+    // The bomb's cell, then right, left, down and up as in the neighbour bits of the static map
+    private static final int[] DX = {0, 1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 0, 1, -1};
+
+    private final StaticMap map;
+    private final int width;
+    private final int[] offsets = new int[MAX_BLAST_CELLS];
+    private int[] queue = new int[16];
+    private int head;
+    private int tail;
+
+    BlastResolver(StaticMap map) {
+        this.map = map;
+        this.width = map.getWidth();
+        for (int d = 0; d < MAX_BLAST_CELLS; d++) {
+            offsets[d] = DY[d] * width + DX[d];
+        }
+    }
+
+    /**
+     * Store the packed cells ({@code y * width + x}) reached by a bomb at the given cell
+     *
+     * @param cells room for at least {@link #MAX_BLAST_CELLS} cells
+     * @return the number of cells stored
+     */
+    public int blastCells(int x, int y, int[] cells) {
+        if (!map.isInside(x, y)) {
+            return 0;
+        }
+        int cell = y * width + x;
+        int mask = (map.isBorder(x, y) ? 0 : 1) | map.getNeighbours(x, y) << 1;
+        int count = 0;
+        for (int d = 0; mask != 0; d++, mask >>>= 1) {
+            if ((mask & 1) != 0) {
+                cells[count++] = cell + offsets[d];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Queue a bomb to go off in this tick
+     */
+    public void add(int bomb) {
+        if (tail == queue.length) {
+            if (head > 0) {
+                System.arraycopy(queue, head, queue, 0, tail - head);
+                tail -= head;
+                head = 0;
+            } else {
+                queue = Arrays.copyOf(queue, queue.length * 2);
+            }
+        }
+        queue[tail++] = bomb;
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * @return the next queued bomb, in the order they were added
+     */
+    public int poll() {
+        int bomb = queue[head++];
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+        }
+        return bomb;
+    }
+}
@@ -0,0 +1,51 @@
+package minemaze;
+
+/**
+ * One bit per grid cell, indexed by {@code y * width + x}. Cells outside the grid are never set.
+ * The words are copy-on-write, so a snapshot of the set shares them until they change.
+ */
+class CellBitSet {
+    private final int width;
+    private final int height;
+    private final CowIntArray words;
+
+    CellBitSet(int width, int height) {
+        this.width = width;
+        this.height = height;
+        words = new CowIntArray((width * height + 31) >>> 5);
+    }
+
+    public boolean isInside(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public boolean get(int x, int y) {
+        if (!isInside(x, y)) {
+            return false;
+        }
+        int cell = y * width + x;
+        return (words.get(cell >>> 5) & (1 << cell)) != 0;
+    }
+
+    public void set(int x, int y) {
+        if (isInside(x, y)) {
+            int cell = y * width + x;
+            words.set(cell >>> 5, words.get(cell >>> 5) | 1 << cell);
+        }
+    }
+
+    public void clear(int x, int y) {
+        if (isInside(x, y)) {
+            int cell = y * width + x;
+            words.set(cell >>> 5, words.get(cell >>> 5) & ~(1 << cell));
+        }
+    }
+
+    CowIntArray.Frozen freeze() {
+        return words.freeze();
+    }
+
+    void restore(CowIntArray.Frozen frozen) {
+        words.restore(frozen);
+    }
+}
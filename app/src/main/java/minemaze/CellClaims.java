@@ -0,0 +1,74 @@
+package minemaze;
+
+/**
+ * The cells taken by moves in the current tick, as a spatial hash of packed cells ({@code y * width + x}).
+ * <p>
+ * Slots belong to the current round only when their stamp matches it, so {@link #clear()} starts a new
+ * round in O(1) without touching the table, and a fleet of agents claims cells without allocating.
+ */
+class CellClaims {
+    private int[] cells = new int[16];
+    private int[] stamps = new int[16];
+    private int shift = Integer.SIZE - 4;
+    private int round = 1;
+    private int size;
+
+    /**
+     * Forget every claim
+     */
+    public void clear() {
+        round++;
+        size = 0;
+    }
+
+    public boolean isClaimed(int cell) {
+        return stamps[slotOf(cell)] == round;
+    }
+
+    /**
+     * @return false if the cell was already claimed in this round
+     */
+    public boolean claim(int cell) {
+        int slot = slotOf(cell);
+        if (stamps[slot] == round) {
+            return false;
+        }
+        cells[slot] = cell;
+        stamps[slot] = round;
+        if (++size * 2 > cells.length) {
+            grow();
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the slot holding the cell in this round, or the free slot where it would go
+     */
+    private int slotOf(int cell) {
+        int mask = cells.length - 1;
+        int slot = (cell * 0x9e3779b9) >>> shift;
+        while (stamps[slot] == round && cells[slot] != cell) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldCells = cells;
+        int[] oldStamps = stamps;
+        cells = new int[oldCells.length * 2];
+        stamps = new int[oldCells.length * 2];
+        shift--;
+        for (int i = 0; i < oldCells.length; i++) {
+            if (oldStamps[i] == round) {
+                int slot = slotOf(oldCells[i]);
+                cells[slot] = oldCells[i];
+                stamps[slot] = round;
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package minemaze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A {@link MapGrid} over a binary map file that is far larger than the heap should hold.
+ * <p>
+ * The file is memory-mapped and cut into square tiles. A tile is decoded into cell ordinals the first time
+ * one of its cells is read and kept in an LRU cache of a fixed number of tiles, so the heap holds the tiles
+ * around the actors rather than the whole map. The cache is a few primitive arrays with an open-addressing
+ * index by tile, and an evicted tile's array is refilled for the new tile, so reading cells allocates
+ * nothing once the cache is full. Not thread-safe, like the engine that reads it.
+ */
+public class ChunkedMapGrid extends MapGrid implements AutoCloseable {
+    public static final int DEFAULT_TILE_SIZE = 64;
+    public static final int DEFAULT_MAX_TILES = 256;
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = (int) SEGMENT_SIZE - 1;
+    private static final int HEADER_SIZE = MapLoader.MAGIC.length + 8;
+
+    private final FileChannel channel;
+    private final ByteBuffer[] segments;
+    private final int tileSize;
+    private final int tilesPerRow;
+    // The file, its size and when it was last changed
+    private final StaticMap.Key staticMapKey;
+    // Cache slots: tile index (-1 when empty), decoded cells and last use of each slot
+    private final int[] slotTileIndices;
+    private final byte[][] slotTiles;
+    private final long[] slotUses;
+    private long uses;
+    private int loadedTiles;
+    // Open-addressing index from tile index to slot + 1, 0 for a free entry
+    private final int[] index;
+    private final int indexShift;
+    // The last tile read; consecutive reads mostly stay in one tile
+    private int lastTileIndex = -1;
+    private byte[] lastTile;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private ChunkedMapGrid(int nbHorzCells, int nbVertCells, FileChannel channel, ByteBuffer[] segments,
+                           StaticMap.Key staticMapKey, int tileSize, int maxTiles) {
+        super(nbHorzCells, nbVertCells);
+        this.channel = channel;
+        this.staticMapKey = staticMapKey;
+        this.segments = segments;
+        this.tileSize = tileSize;
+        this.tilesPerRow = (nbHorzCells + tileSize - 1) / tileSize;
+        slotTileIndices = new int[maxTiles];
+        Arrays.fill(slotTileIndices, -1);
+        slotTiles = new byte[maxTiles][];
+        slotUses = new long[maxTiles];
+        // At most half full, so probes stay short
+        index = new int[Integer.highestOneBit(maxTiles * 4 - 1)];
+        indexShift = Integer.numberOfLeadingZeros(index.length - 1);
+    }
+
+    public static ChunkedMapGrid open(Path mapFile) throws IOException {
+        return open(mapFile, DEFAULT_TILE_SIZE, DEFAULT_MAX_TILES);
+    }
+
+    /**
+     * Map a binary map file as written by {@link MapLoader#writeBinary}
+     *
+     * @param tileSize the width and height of a tile in cells
+     * @param maxTiles how many decoded tiles to keep
+     */
+    public static ChunkedMapGrid open(Path mapFile, int tileSize, int maxTiles) throws IOException {
+        if (tileSize < 1 || maxTiles < 1) {
+            throw new IllegalArgumentException("Tile size and tile count must be positive");
+        }
+        FileChannel channel = FileChannel.open(mapFile, StandardOpenOption.READ);
+        try {
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                throw new IllegalArgumentException(mapFile + ": not a binary map");
+            }
+            ByteBuffer[] segments = new ByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start));
+            }
+
+            ByteBuffer header = segments[0].duplicate();
+            byte[] magic = new byte[MapLoader.MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MapLoader.MAGIC)) {
+                throw new IllegalArgumentException(mapFile + ": not a binary map");
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            if (width <= 0 || height <= 0 || (long) width * height != length - HEADER_SIZE) {
+                throw new IllegalArgumentException(mapFile + ": binary map of " + width + "x" + height +
+                        " has " + (length - HEADER_SIZE) + " cells");
+            }
+            StaticMap.Key staticMapKey = StaticMap.Key.ofFile(width, height, mapFile.toRealPath() + ":" + length +
+                    ":" + Files.getLastModifiedTime(mapFile).toMillis());
+            return new ChunkedMapGrid(width, height, channel, segments, staticMapKey, tileSize, maxTiles);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ElementType getCell(int x, int y) {
+        int tileIndex = (y / tileSize) * tilesPerRow + x / tileSize;
+        byte[] tile;
+        if (tileIndex == lastTileIndex) {
+            tile = lastTile;
+            hits++;
+        } else {
+            int slot = findSlot(tileIndex);
+            if (slot < 0) {
+                slot = freeSlot();
+                slotTiles[slot] = loadTile(slotTiles[slot], x / tileSize, y / tileSize);
+                slotTileIndices[slot] = tileIndex;
+                addToIndex(slot);
+                misses++;
+            } else {
+                hits++;
+            }
+            slotUses[slot] = ++uses;
+            tile = slotTiles[slot];
+            lastTileIndex = tileIndex;
+            lastTile = tile;
+        }
+        return TYPES[tile[(y % tileSize) * tileSize + x % tileSize]];
+    }
+
+    private int home(int tileIndex) {
+        // Fibonacci hashing: the top bits of the product spread neighbouring tiles over the index
+        return tileIndex * 0x9E3779B9 >>> indexShift;
+    }
+
+    /**
+     * @return the slot holding the tile, or -1
+     */
+    private int findSlot(int tileIndex) {
+        for (int i = home(tileIndex); index[i] != 0; i = i + 1 & index.length - 1) {
+            if (slotTileIndices[index[i] - 1] == tileIndex) {
+                return index[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void addToIndex(int slot) {
+        int i = home(slotTileIndices[slot]);
+        while (index[i] != 0) {
+            i = i + 1 & index.length - 1;
+        }
+        index[i] = slot + 1;
+    }
+
+    /**
+     * Take a slot's entry out of the index, moving later entries of the probe run back into the gap
+     */
+    private void removeFromIndex(int slot) {
+        int gap = home(slotTileIndices[slot]);
+        while (index[gap] != slot + 1) {
+            gap = gap + 1 & index.length - 1;
+        }
+        index[gap] = 0;
+        for (int i = gap + 1 & index.length - 1; index[i] != 0; i = i + 1 & index.length - 1) {
+            int wanted = home(slotTileIndices[index[i] - 1]);
+            // The entry may move back into the gap when the gap lies between its home and where it is
+            if ((i - wanted & index.length - 1) >= (i - gap & index.length - 1)) {
+                index[gap] = index[i];
+                index[i] = 0;
+                gap = i;
+            }
+        }
+    }
+
+    /**
+     * @return an empty slot, else the least recently used one after dropping its tile
+     */
+    private int freeSlot() {
+        if (loadedTiles < slotTileIndices.length) {
+            return loadedTiles++;
+        }
+        int victim = 0;
+        for (int slot = 1; slot < slotUses.length; slot++) {
+            if (slotUses[slot] < slotUses[victim]) {
+                victim = slot;
+            }
+        }
+        removeFromIndex(victim);
+        slotTileIndices[victim] = -1;
+        evictions++;
+        return victim;
+    }
+
+    /**
+     * Decode one tile from the mapped file. Cells of edge tiles beyond the map stay outside cells.
+     *
+     * @param tile the array of an evicted tile to refill, or null
+     * @throws IllegalArgumentException for a character that is not a map element
+     */
+    private byte[] loadTile(byte[] tile, int tileX, int tileY) {
+        if (tile == null) {
+            tile = new byte[tileSize * tileSize];
+        }
+        Arrays.fill(tile, (byte) ElementType.OUTSIDE.ordinal());
+        int width = getNbHorzCells();
+        int columns = Math.min(tileSize, width - tileX * tileSize);
+        int rows = Math.min(tileSize, getNbVertCells() - tileY * tileSize);
+        for (int row = 0; row < rows; row++) {
+            int y = tileY * tileSize + row;
+            long position = HEADER_SIZE + (long) y * width + (long) tileX * tileSize;
+            for (int column = 0; column < columns; column++) {
+                byte mapChar = byteAt(position + column);
+                ElementType type = typeOf(mapChar);
+                if (type == null) {
+                    throw new IllegalArgumentException("Unknown map element '" + (char) (mapChar & 0xff) + "' at " +
+                            (tileX * tileSize + column) + "-" + y);
+                }
+                tile[row * tileSize + column] = (byte) type.ordinal();
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Keyed by the file rather than its cells, so a map that is already interned is found without reading it
+     */
+    @Override
+    StaticMap.Key getStaticMapKey() {
+        return staticMapKey;
+    }
+
+    /**
+     * Read the row straight from the mapped file, leaving the tile cache to the cells the game reads
+     */
+    @Override
+    void readRow(int y, byte[] ordinals) {
+        int width = getNbHorzCells();
+        long position = HEADER_SIZE + (long) y * width;
+        for (int x = 0; x < width; x++) {
+            byte mapChar = byteAt(position + x);
+            ElementType type = typeOf(mapChar);
+            if (type == null) {
+                throw new IllegalArgumentException("Unknown map element '" + (char) (mapChar & 0xff) + "' at " +
+                        x + "-" + y);
+            }
+            ordinals[x] = (byte) type.ordinal();
+        }
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) position & SEGMENT_MASK);
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * @return the number of decoded tiles held in memory
+     */
+    public int getLoadedTiles() {
+        return loadedTiles;
+    }
+
+    /**
+     * @return cell reads served by a tile that was already decoded
+     */
+    public long getTileHits() {
+        return hits;
+    }
+
+    /**
+     * @return cell reads that had to decode their tile from the file
+     */
+    public long getTileMisses() {
+        return misses;
+    }
+
+    /**
+     * @return tiles dropped from the cache to make room for others
+     */
+    public long getTileEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
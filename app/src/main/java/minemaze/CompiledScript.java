@@ -0,0 +1,102 @@
+package minemaze;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+/**
+ * A movement script parsed once into packed opcodes: {@link #MOVE} followed by x and y, or a single
+ * {@link #WAIT} or {@link #BOMB}. Playing it back only walks the array.
+ */
+public final class CompiledScript implements MovementScript {
+    private final int[] code;
+    private final int steps;
+    private int pc;
+    private int x;
+    private int y;
+
+    private CompiledScript(int[] code, int steps) {
+        this.code = code;
+        this.steps = steps;
+    }
+
+    /**
+     * Parse a whole script
+     *
+     * @param name what to call the script in error messages, e.g. the property it came from
+     * @throws IllegalArgumentException for a step that is not x-y, Bomb or empty
+     */
+    public static CompiledScript compile(String script, String name) {
+        ScriptParser parser = new ScriptParser(new StringReader(script), name);
+        int[] code = new int[16];
+        int length = 0;
+        for (int opcode = parser.next(); opcode != END; opcode = parser.next()) {
+            if (length + 3 > code.length) {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+            code[length++] = opcode;
+            if (opcode == MOVE) {
+                code[length++] = parser.getX();
+                code[length++] = parser.getY();
+            }
+        }
+        return new CompiledScript(Arrays.copyOf(code, length), parser.getStep());
+    }
+
+    @Override
+    public int next() {
+        if (pc >= code.length) {
+            return END;
+        }
+        int opcode = code[pc++];
+        if (opcode == MOVE) {
+            x = code[pc++];
+            y = code[pc++];
+        }
+        return opcode;
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return the number of steps in the script
+     */
+    public int size() {
+        return steps;
+    }
+
+    /**
+     * @return the same script from its first step. The code is shared, so copies are cheap and each can be
+     * played by its own game.
+     */
+    public CompiledScript copy() {
+        return new CompiledScript(code, steps);
+    }
+
+    /**
+     * Start again from the first step
+     */
+    public void reset() {
+        pc = 0;
+    }
+
+    @Override
+    public int getPosition() {
+        return pc;
+    }
+
+    @Override
+    public void seek(int position) {
+        if (position < 0 || position > code.length) {
+            throw new IllegalArgumentException("Position " + position + " is outside the script");
+        }
+        pc = position;
+    }
+}
@@ -0,0 +1,128 @@
+package minemaze;
+
+import java.util.Arrays;
+
+/**
+ * An int array in fixed-size chunks that can be frozen in O(1) and shared with the frozen copy.
+ * <p>
+ * After {@link #freeze()} the chunks belong to the frozen copy, and the first write to a chunk copies that
+ * chunk, plus the chunk table the first time. A chunk is owned, and written in place, when it was copied
+ * in the current epoch of the array; freezing and restoring start a new epoch. Unwritten chunks stay
+ * shared by any number of frozen copies and arrays restored from them. Chunks that start as zeros share
+ * one empty chunk until written, so a large array that is mostly zero costs little more than its table.
+ */
+final class CowIntArray {
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    // Shared by every array; its epoch is 0, older than any array's, so it is never written in place
+    private static final int[] ZERO_CHUNK = new int[CHUNK_SIZE];
+
+    /**
+     * The content of an array at the moment it was frozen; never changes
+     */
+    static final class Frozen {
+        private final int[][] chunks;
+        private final int[] chunkEpochs;
+        private final int epoch;
+
+        private Frozen(int[][] chunks, int[] chunkEpochs, int epoch) {
+            this.chunks = chunks;
+            this.chunkEpochs = chunkEpochs;
+            this.epoch = epoch;
+        }
+    }
+
+    private int[][] chunks;
+    // The epoch in which each chunk was last copied by this array
+    private int[] chunkEpochs;
+    private int epoch = 1;
+    // Set while the chunk table itself is shared with a frozen copy
+    private boolean isTableShared;
+
+    CowIntArray(int length) {
+        this(length, 0);
+    }
+
+    /**
+     * @param length the least number of elements, rounded up to whole chunks
+     * @param value the initial value of every element
+     */
+    CowIntArray(int length, int value) {
+        int chunkCount = (length + CHUNK_MASK) >>> CHUNK_BITS;
+        chunks = new int[chunkCount][];
+        chunkEpochs = new int[chunkCount];
+        if (value == 0) {
+            Arrays.fill(chunks, ZERO_CHUNK);
+            return;
+        }
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c] = new int[CHUNK_SIZE];
+            Arrays.fill(chunks[c], value);
+            chunkEpochs[c] = epoch;
+        }
+    }
+
+    public int length() {
+        return chunks.length << CHUNK_BITS;
+    }
+
+    public int get(int index) {
+        return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    public void set(int index, int value) {
+        writableChunk(index >>> CHUNK_BITS)[index & CHUNK_MASK] = value;
+    }
+
+    /**
+     * Make room for at least the given number of elements; new elements are 0
+     */
+    public void grow(int minLength) {
+        int chunkCount = (minLength + CHUNK_MASK) >>> CHUNK_BITS;
+        if (chunkCount <= chunks.length) {
+            return;
+        }
+        int oldCount = chunks.length;
+        // A fresh table, so it is no longer shared
+        chunks = Arrays.copyOf(chunks, Math.max(chunkCount, oldCount * 2));
+        chunkEpochs = Arrays.copyOf(chunkEpochs, chunks.length);
+        isTableShared = false;
+        Arrays.fill(chunks, oldCount, chunks.length, ZERO_CHUNK);
+    }
+
+    /**
+     * Share the current content with a frozen copy. Later writes copy the chunks they touch.
+     */
+    public Frozen freeze() {
+        isTableShared = true;
+        return new Frozen(chunks, chunkEpochs, epoch++);
+    }
+
+    /**
+     * Go back to the content of a frozen copy, sharing its chunks until they are written
+     */
+    public void restore(Frozen frozen) {
+        chunks = frozen.chunks;
+        chunkEpochs = frozen.chunkEpochs;
+        isTableShared = true;
+        // Newer than every chunk of the copy, so none of them is written in place
+        epoch = Math.max(epoch, frozen.epoch) + 1;
+    }
+
+    private int[] writableChunk(int c) {
+        if (chunkEpochs[c] == epoch && !isTableShared) {
+            return chunks[c];
+        }
+        if (isTableShared) {
+            chunks = chunks.clone();
+            chunkEpochs = chunkEpochs.clone();
+            isTableShared = false;
+        }
+        if (chunkEpochs[c] != epoch) {
+            chunks[c] = chunks[c].clone();
+            chunkEpochs[c] = epoch;
+        }
+        return chunks[c];
+    }
+}
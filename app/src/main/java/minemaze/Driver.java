@@ -1,21 +1,82 @@
 package minemaze;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Properties;
 
 public class Driver {
     public static final String DEFAULT_PROPERTIES_PATH = "properties/game1.properties";
+    public static final String HEADLESS_OPTION = "--headless";
+    public static final String FAST_FORWARD_OPTION = "--fast";
+    public static final String LOG_FILE_OPTION = "--log";
+    public static final String REPLAY_FILE_OPTION = "--replay";
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         String propertiesPath = DEFAULT_PROPERTIES_PATH;
-        if (args.length > 0) {
-            propertiesPath = args[0];
+        boolean isHeadless = false;
+        boolean isFastForward = false;
+        Path logFile = null;
+        Path replayFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(HEADLESS_OPTION)) {
+                isHeadless = true;
+            } else if (args[i].equals(FAST_FORWARD_OPTION)) {
+                isFastForward = true;
+            } else if (args[i].equals(LOG_FILE_OPTION)) {
+                logFile = Paths.get(args[++i]);
+            } else if (args[i].equals(REPLAY_FILE_OPTION)) {
+                replayFile = Paths.get(args[++i]);
+            } else {
+                propertiesPath = args[i];
+            }
+        }
+        if (logFile != null && replayFile != null) {
+            // The engine has one log sink; convert the replay with ReplayConverter to get the text log
+            System.err.println("Give either " + LOG_FILE_OPTION + " or " + REPLAY_FILE_OPTION + ", not both");
+            System.exit(2);
         }
         final Properties properties = PropertiesLoader.loadPropertiesFile(propertiesPath);
+        if (isFastForward) {
+            properties.setProperty(GameClock.CLOCK_PROPERTY, GameClock.VIRTUAL_MODE);
+        }
+
+        MapGrid grid = MapLoader.fromProperties(properties);
+
+        MineMaze game = null;
+        GameEngine engine;
+        if (isHeadless) {
+            // Run the model only, without creating any window
+            engine = new GameEngine(properties, grid);
+        } else {
+            game = new MineMaze(properties, grid);
+            engine = game.getEngine();
+        }
 
-        MapGrid grid = new MapGrid();
+        GameLogSink logSink;
+        if (replayFile != null) {
+            logSink = new ReplayEncoder(Files.newOutputStream(replayFile), engine);
+        } else if (logFile != null) {
+            logSink = new FileLogSink(logFile);
+        } else {
+            logSink = new MemoryLogSink();
+        }
+        engine.setLogSink(logSink);
+        String logResult = game == null ? engine.run() : game.runApp(true);
+        logSink.close();
+        String timingReport = engine.getClock().getTimingReport();
+        if (timingReport != null) {
+            System.out.println("timing: " + timingReport);
+        }
 
-        MineMaze game = new MineMaze(properties, grid);
-        String logResult = game.runApp(true);
-        System.out.println("logResult = " + logResult);
+        if (replayFile != null) {
+            System.out.println("replay written to " + replayFile);
+        } else if (logFile != null) {
+            System.out.println("log written to " + logFile);
+        } else {
+            System.out.println("logResult = " + logResult);
+        }
+        System.out.println(engine.getStatistics().generateReport());
         System.out.println("\nGame completed");
     }
-}
\ No newline at end of file
+}
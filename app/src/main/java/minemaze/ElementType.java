@@ -0,0 +1,34 @@
+package minemaze;
+
+public enum ElementType {
+    OUTSIDE("Outside", ' '), EMPTY("Empty", '.'), BORDER("Border", 'x'),
+    PUSHER("Pusher", 'P'), ORE("Ore", '*'), BOULDER("Boulder", 'r'), TARGET("Target", 'o'),
+    BOMB_MARKER("BombMarker", 'm'), BOOSTER("Booster", 'b'), HARD_ROCK("HardRock", 'h'),
+    BOMBER("Bomber", 'B'), FUEL("Fuel", 'f');
+    private String shortType;
+    private char mapElement;
+
+    ElementType(String shortType, char mapElement) {
+        this.shortType = shortType;
+        this.mapElement = mapElement;
+    }
+
+    public String getShortType() {
+        return shortType;
+    }
+
+    public char getMapElement() {
+        return mapElement;
+    }
+
+    public static ElementType getElementByShortType(String shortType) {
+        ElementType[] types = ElementType.values();
+        for (ElementType type : types) {
+            if (type.getShortType().equals(shortType)) {
+                return type;
+            }
+        }
+
+        return ElementType.EMPTY;
+    }
+}
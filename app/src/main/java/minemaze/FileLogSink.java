@@ -0,0 +1,14 @@
+package minemaze;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams the log into a file. Lines are written through the buffer and flushed when it fills up.
+ */
+public class FileLogSink extends StreamLogSink {
+    public FileLogSink(Path logFile) throws IOException {
+        super(Files.newOutputStream(logFile), false);
+    }
+}
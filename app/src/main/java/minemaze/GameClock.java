@@ -0,0 +1,41 @@
+package minemaze;
+
+import java.util.Properties;
+
+/**
+ * Paces the game loop. The game asks the clock to wait for one simulation period before every tick.
+ */
+public interface GameClock {
+    String CLOCK_PROPERTY = "clock.mode";
+    String VIRTUAL_MODE = "virtual";
+
+    /**
+     * Block until the next tick is due
+     *
+     * @param periodMillis the simulation period in milliseconds
+     */
+    void awaitNextTick(int periodMillis) throws InterruptedException;
+
+    /**
+     * Time elapsed on this clock in milliseconds
+     */
+    long elapsedMillis();
+
+    /**
+     * @return a one-line summary of how well the clock kept time, or null if it has nothing to report
+     */
+    default String getTimingReport() {
+        return null;
+    }
+
+    /**
+     * Pick the clock named by the clock.mode property, real time unless it is set to virtual
+     */
+    static GameClock fromProperties(Properties properties) {
+        if (VIRTUAL_MODE.equals(properties.getProperty(CLOCK_PROPERTY))) {
+            return new VirtualClock();
+        }
+        String maxCatchUpTicks = properties.getProperty(RealTimeClock.MAX_CATCH_UP_PROPERTY);
+        return maxCatchUpTicks == null ? new RealTimeClock() : new RealTimeClock(Integer.parseInt(maxCatchUpTicks));
+    }
+}
@@ -0,0 +1,1190 @@
+package minemaze;
+
+import jdk.jfr.EventType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Headless model of a MineMaze game.
+ * <p>
+ * The engine owns the state of the pusher, bomber, ores, rocks, hard rocks, boosters, fuel and targets,
+ * resolves movements and collisions and produces the game log. It does not depend on GameGrid or AWT,
+ * so it can run on machines without a display. {@link MineMaze} renders the engine's state.
+ * <p>
+ * Every pusher and bomber on the map is an agent with its own script: {@code pusher.movements} and
+ * {@code bomber.movements} drive the first of each in map order, {@code pusher.2.movements},
+ * {@code bomber.2.movements} and so on the others. The pushers' moves in a tick are worked out together
+ * from the state at the start of the move phase and then applied in pusher order; see {@link #resolveMoves()}.
+ */
+public class GameEngine {
+    public static final String BOMB_COMMAND = "Bomb";
+    // Set to true to end every log line with the state hash, e.g. "#Hash:9e3779b97f4a7c15"
+    public static final String HASH_PROPERTY = "log.hash";
+    // A bomb detonates this many ticks after it is placed
+    public static final int BOMB_FUSE_TICKS = 6;
+    // Kinds of events on the timing wheel
+    private static final int DETONATION_EVENT = 0;
+    // The fewest pushers a worker takes; smaller fleets are planned and resolved on the calling thread
+    public static final int PUSHERS_PER_WORKER = 32;
+    // A pusher kept out of its next cell by other pushers this many ticks plans a way around them
+    public static final int MAX_WAIT_TICKS = 3;
+
+    // What a pusher wants to do in the current tick
+    private static final byte IDLE = 0;
+    private static final byte MOVE = 1;
+    private static final byte WAIT = 2;
+    private static final byte BLOCKED = 3;
+    // In plannedSteps for a pusher whose script did not move it in this tick
+    private static final int NOT_PLANNED = -2;
+    private static final int ONE_SECOND = 1000;
+    private static final EventType TICK_EVENT_TYPE = EventType.getEventType(TickEvent.class);
+
+    /**
+     * Actor types in the order they appear on a log line
+     */
+    private static final ElementType[] LOGGED_TYPES = {
+            ElementType.PUSHER, ElementType.ORE, ElementType.TARGET, ElementType.BOULDER,
+            ElementType.BOMBER, ElementType.BOMB_MARKER, ElementType.BOOSTER, ElementType.HARD_ROCK
+    };
+
+    /**
+     * Actor types taken from the map, after the ones from the properties; ore and bomb markers only come
+     * from the properties
+     */
+    private static final ElementType[] MAP_ACTORS = {
+            ElementType.PUSHER, ElementType.TARGET, ElementType.BOULDER,
+            ElementType.BOOSTER, ElementType.HARD_ROCK, ElementType.BOMBER, ElementType.FUEL
+    };
+
+    /**
+     * The state of a game between ticks, taken with {@link #snapshot()} and gone back to with
+     * {@link #restore(Snapshot)}. Everything that changes during a game, the actor layers, the pending bombs
+     * and the agents' paths, scripts and bombs, is held in copy-on-write arrays that the snapshot shares with
+     * the engine, so it costs O(1) to capture and later ticks copy only the chunks they change. A snapshot
+     * never changes, so it can be restored any number of times and into any engine loaded from the same
+     * scenario.
+     */
+    public static final class Snapshot {
+        private final int nbHorzCells;
+        private final int nbVertCells;
+        private final int pusherCount;
+        private final int bomberCount;
+        private final ActorLayer.State[] layers;
+        private final int gameTick;
+        private final int autoMovementIndex;
+        private final int oresCollected;
+        private final boolean isFinished;
+        private final CowIntArray.Frozen pusherScriptPositions;
+        private final PathTable.State paths;
+        private final CowIntArray.Frozen pusherDirections;
+        private final CowIntArray.Frozen pusherWaits;
+        private final CowIntArray.Frozen detourTargets;
+        private final CowIntArray.Frozen bomberScriptPositions;
+        private final CowIntArray.Frozen bombsLeft;
+        private final TimingWheel.State events;
+        private final CowIntArray.Frozen freeMarkers;
+        private final int freeMarkerCount;
+        private final CowIntArray.Frozen fuseHandles;
+        private final GameStatistics statistics = new GameStatistics();
+
+        private Snapshot(GameEngine engine) {
+            nbHorzCells = engine.nbHorzCells;
+            nbVertCells = engine.nbVertCells;
+            pusherCount = engine.pusherScripts.length;
+            bomberCount = engine.bomberScripts.length;
+            layers = new ActorLayer.State[engine.layers.length];
+            for (int t = 0; t < layers.length; t++) {
+                layers[t] = engine.layers[t].freeze();
+            }
+            gameTick = engine.gameTick;
+            autoMovementIndex = engine.autoMovementIndex;
+            oresCollected = engine.oresCollected;
+            isFinished = engine.isFinished;
+            pusherScriptPositions = engine.pusherScriptPositions.freeze();
+            paths = engine.paths.freeze();
+            pusherDirections = engine.pusherDirections.freeze();
+            pusherWaits = engine.pusherWaits.freeze();
+            detourTargets = engine.detourTargets.freeze();
+            bomberScriptPositions = engine.bomberScriptPositions.freeze();
+            bombsLeft = engine.bombsLeft.freeze();
+            events = engine.events.freeze();
+            freeMarkers = engine.freeMarkers.freeze();
+            freeMarkerCount = engine.freeMarkerCount;
+            fuseHandles = engine.fuseHandles.freeze();
+            // A fixed set of counters
+            statistics.copyFrom(engine.statistics);
+        }
+
+        public int getGameTick() {
+            return gameTick;
+        }
+    }
+
+    private final MapGrid grid;
+    private final int nbHorzCells;
+    private final int nbVertCells;
+    // Border and neighbours of the map, shared by every game on it
+    private final StaticMap staticMap;
+    private final ActorLayer[] layers = new ActorLayer[ElementType.values().length];
+    private final ActorLayer pushers;
+    private final ActorLayer ores;
+    private final ActorLayer targets;
+    private final ActorLayer rocks;
+    private final ActorLayer bombers;
+    private final ActorLayer hardRocks;
+    private final ActorLayer bombMarkers;
+    private final PathPlanner pathPlanner;
+    // Also counts the pushers as blockers, for pushers planning a way around the others
+    private final PathPlanner crowdPlanner;
+    // Planners of the other workers when pushers are planned in parallel; the first worker uses pathPlanner
+    private PathPlanner[] workerPlanners = new PathPlanner[0];
+    private boolean isFinished = false;
+    private final boolean isAutoMode;
+    private final int simulationPeriod;
+    private GameClock clock;
+    // Game time is counted in whole ticks of simulationPeriod milliseconds
+    private final long durationMillis;
+    private int gameTick;
+    // Per pusher, by index in the pusher layer: script and where it is, planned path and progress along it,
+    // direction, ticks spent waiting for other pushers and the target of a detour around them, or -1
+    private final MovementScript[] pusherScripts;
+    private final CowIntArray pusherScriptPositions;
+    private final PathTable paths;
+    private final CowIntArray pusherDirections;
+    private final CowIntArray pusherWaits;
+    private final CowIntArray detourTargets;
+    // Whether every script can go back, so the engine can be snapshot
+    private final boolean isSeekable;
+    // The path each pusher planned in this tick, or NOT_PLANNED; filled in parallel, then taken in order
+    private final int[] plannedSteps;
+    private final int[][] plannedPaths;
+    // The move each pusher wants in this tick: its state, the cell it enters and the ore it pushes, or -1
+    private final byte[] intents;
+    private final int[] intendedCells;
+    private final int[] intendedOres;
+    private final int[] intendedOreCells;
+    private final CellClaims claims = new CellClaims();
+    private final IntConsumer planWorker = this::planPushers;
+    private final IntConsumer intentWorker = this::intendSteps;
+    private int workers;
+    // Per bomber: script, where it is and bombs left
+    private final MovementScript[] bomberScripts;
+    private final CowIntArray bomberScriptPositions;
+    private final CowIntArray bombsLeft;
+    private final StringBuilder logLine = new StringBuilder();
+    private final boolean isHashLogged;
+    private GameLogSink logSink = new MemoryLogSink();
+    private final GameMetrics metrics = new GameMetrics();
+    private final GameStatistics statistics = new GameStatistics();
+    private final int oresWinning;
+    private int oresCollected;
+    private final int maxNumberOfBombs;
+    private final TimingWheel events = new TimingWheel();
+    private final TimingWheel.Listener eventListener = this::fireEvent;
+    // Markers of detonated bombs, hidden and kept for the next bombs
+    private final CowIntArray freeMarkers = new CowIntArray(4);
+    private int freeMarkerCount;
+    // The timing wheel handle of each pending bomb's fuse, by marker index
+    private final CowIntArray fuseHandles = new CowIntArray(4);
+    private final BlastResolver blasts;
+    private final int[] blastCells = new int[BlastResolver.MAX_BLAST_CELLS];
+    private int autoMovementIndex = 0;
+
+    /**
+     * Start a game from a properties file and its map
+     *
+     * @throws IllegalArgumentException for a missing or malformed setting, location or script
+     */
+    public GameEngine(Properties properties, MapGrid grid) {
+        this(Scenario.parse(properties, grid));
+    }
+
+    /**
+     * Start a game from a scenario parsed earlier, without parsing its properties again
+     */
+    public GameEngine(Scenario scenario) {
+        grid = scenario.getMap();
+        nbHorzCells = grid.getNbHorzCells();
+        nbVertCells = grid.getNbVertCells();
+        for (ElementType type : ElementType.values()) {
+            layers[type.ordinal()] = new ActorLayer(type, nbHorzCells, nbVertCells);
+        }
+        staticMap = grid.getStaticMap();
+        pushers = getLayer(ElementType.PUSHER);
+        ores = getLayer(ElementType.ORE);
+        targets = getLayer(ElementType.TARGET);
+        rocks = getLayer(ElementType.BOULDER);
+        bombers = getLayer(ElementType.BOMBER);
+        hardRocks = getLayer(ElementType.HARD_ROCK);
+        bombMarkers = getLayer(ElementType.BOMB_MARKER);
+
+        isAutoMode = scenario.isAutoMode();
+        durationMillis = scenario.getDuration() * (long) ONE_SECOND;
+        simulationPeriod = scenario.getSimulationPeriod();
+        oresWinning = scenario.getOresWinning();
+        maxNumberOfBombs = scenario.getMaxNumberOfBombs();
+        clock = GameClock.fromProperties(scenario.getProperties());
+        isHashLogged = Boolean.parseBoolean(scenario.getProperty(HASH_PROPERTY));
+
+        // Actors from the properties file go first, then the ones drawn on the map, as in the original board
+        addActors(ores, scenario.locationsOf(ElementType.ORE));
+        addActors(getLayer(ElementType.FUEL), scenario.locationsOf(ElementType.FUEL));
+        addActors(getLayer(ElementType.BOOSTER), scenario.locationsOf(ElementType.BOOSTER));
+        addMapActors();
+        pathPlanner = new PathPlanner(staticMap, rocks, hardRocks, bombers);
+        crowdPlanner = new PathPlanner(staticMap, rocks, hardRocks, bombers, pushers);
+        blasts = new BlastResolver(staticMap);
+
+        int pusherCount = pushers.size();
+        pusherScripts = new MovementScript[pusherCount];
+        pusherScriptPositions = new CowIntArray(pusherCount);
+        paths = new PathTable(pusherCount);
+        pusherDirections = new CowIntArray(pusherCount);
+        pusherWaits = new CowIntArray(pusherCount);
+        detourTargets = new CowIntArray(pusherCount, -1);
+        plannedSteps = new int[pusherCount];
+        plannedPaths = new int[pusherCount][];
+        intents = new byte[pusherCount];
+        intendedCells = new int[pusherCount];
+        intendedOres = new int[pusherCount];
+        intendedOreCells = new int[pusherCount];
+        for (int i = 0; i < pusherCount; i++) {
+            pusherScripts[i] = scenario.newScript(scriptProperty("pusher", i));
+        }
+        bomberScripts = new MovementScript[bombers.size()];
+        bomberScriptPositions = new CowIntArray(bomberScripts.length);
+        bombsLeft = new CowIntArray(bomberScripts.length, maxNumberOfBombs);
+        for (int i = 0; i < bomberScripts.length; i++) {
+            bomberScripts[i] = scenario.newScript(scriptProperty("bomber", i));
+        }
+        isSeekable = recordPositions(pusherScripts, pusherScriptPositions)
+                & recordPositions(bomberScripts, bomberScriptPositions);
+        setWorkers(ForkJoinPool.getCommonPoolParallelism());
+
+        String metricsFile = scenario.getProperty(GameMetrics.FILE_PROPERTY);
+        if (metricsFile != null && !metricsFile.isEmpty()) {
+            String interval = scenario.getProperty(GameMetrics.INTERVAL_PROPERTY);
+            try {
+                metrics.exportTo(Paths.get(metricsFile),
+                        interval == null ? GameMetrics.DEFAULT_INTERVAL : Integer.parseInt(interval));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return the property holding the script of an agent, e.g. pusher.movements for the first pusher and
+     * pusher.2.movements for the second
+     */
+    static String scriptProperty(String agent, int index) {
+        return index == 0 ? agent + ".movements" : agent + "." + (index + 1) + ".movements";
+    }
+
+    private void addActors(ActorLayer layer, int[] locations) {
+        for (int i = 0; i < locations.length; i += 2) {
+            layer.add(locations[i], locations[i + 1]);
+        }
+    }
+
+    private void addMapActors() {
+        for (ElementType type : MAP_ACTORS) {
+            ActorLayer layer = getLayer(type);
+            for (int cell : staticMap.actorCells(type)) {
+                layer.add(cell % nbHorzCells, cell / nbHorzCells);
+            }
+        }
+    }
+
+    /**
+     * Run the game until it is won or the time is up, one tick every simulation period of the game clock
+     *
+     * @return the complete log, or null when it was streamed to a sink other than a {@link MemoryLogSink}
+     */
+    public String run() {
+        while (isRunning()) {
+            try {
+                clock.awaitNextTick(simulationPeriod);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            tick();
+        }
+        return finish();
+    }
+
+    public boolean isRunning() {
+        return oresCollected < oresWinning && !isTimeUp();
+    }
+
+    /**
+     * Advance the game by one simulation period and append the tick to the log
+     */
+    public void tick() {
+        TickEvent event = TICK_EVENT_TYPE.isEnabled() ? new TickEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long tickStart = System.nanoTime();
+        gameTick++;
+        if (isAutoMode) {
+            // Execute auto movements based on indices
+            autoMovePushers();
+            autoMoveBombers();
+        }
+        long collisionStart = System.nanoTime();
+        // Detonate the bombs whose fuse ends in this tick
+        events.advanceTo(gameTick, eventListener);
+        if (!blasts.isEmpty()) {
+            resolveBlasts();
+        }
+        // Execute path-guided movement
+        resolveMoves();
+        if (isAutoMode) {
+            autoMovementIndex++;
+        }
+        long logStart = System.nanoTime();
+        updateLogResult();
+        long tickEnd = System.nanoTime();
+
+        metrics.record(GameMetrics.Phase.MOVE_RESOLUTION, collisionStart - tickStart);
+        metrics.record(GameMetrics.Phase.COLLISION, logStart - collisionStart);
+        metrics.record(GameMetrics.Phase.LOG, tickEnd - logStart);
+        metrics.record(GameMetrics.Phase.TICK, tickEnd - tickStart);
+        updateGauges();
+        metrics.tickEnded(gameTick);
+        if (event != null) {
+            event.tick = gameTick;
+            event.moveResolutionNanos = collisionStart - tickStart;
+            event.collisionNanos = logStart - collisionStart;
+            event.logNanos = tickEnd - logStart;
+            event.pathLength = getPathLength();
+            event.pathRemaining = getPathRemaining();
+            event.oresCollected = oresCollected;
+            event.stateHash = getStateHash();
+            event.commit();
+        }
+    }
+
+    private void updateGauges() {
+        metrics.setGauge(GameMetrics.Gauge.PATH_LENGTH, getPathLength());
+        metrics.setGauge(GameMetrics.Gauge.PATH_REMAINING, getPathRemaining());
+        metrics.setGauge(GameMetrics.Gauge.ORES_COLLECTED, oresCollected);
+        metrics.setGauge(GameMetrics.Gauge.PUSHER_MOVES, statistics.getPusherMoves());
+        metrics.setGauge(GameMetrics.Gauge.BOMBER_MOVES, statistics.getBomberMoves());
+        metrics.setGauge(GameMetrics.Gauge.BOMBS_PLACED, statistics.getBombsPlaced());
+        metrics.setGauge(GameMetrics.Gauge.ROCKS_DESTROYED, statistics.getRocksDestroyed());
+        metrics.setGauge(GameMetrics.Gauge.BOOSTERS_USED, statistics.getBoostersUsed());
+    }
+
+    /**
+     * Write the outcome to the log and stop accepting movements
+     *
+     * @return the complete log, or null when it was streamed to a sink other than a {@link MemoryLogSink}
+     */
+    public String finish() {
+        if (isWon()) {
+            logSink.writeOutcome("You won");
+        } else if (isTimeUp()) {
+            logSink.writeOutcome("You lost");
+        }
+
+        isFinished = true;
+        for (MovementScript script : pusherScripts) {
+            script.close();
+        }
+        for (MovementScript script : bomberScripts) {
+            script.close();
+        }
+        metrics.close(gameTick);
+        return getLogResult();
+    }
+
+    public boolean isWon() {
+        return oresCollected == oresWinning;
+    }
+
+    public boolean isTimeUp() {
+        return (long) gameTick * simulationPeriod > durationMillis;
+    }
+
+    /**
+     * Capture the state of the game, to go back to with {@link #restore(Snapshot)}. Call it between ticks.
+     *
+     * @throws UnsupportedOperationException when a script is streamed from a file, as those cannot go back
+     */
+    public Snapshot snapshot() {
+        if (!isSeekable) {
+            throw new UnsupportedOperationException("A script streamed from a file cannot go back");
+        }
+        return new Snapshot(this);
+    }
+
+    /**
+     * Go back to the state of a snapshot, taken from this engine or another one loaded from the same scenario.
+     * The log, the metrics and the clock are not part of the state: the log carries on from where it is and
+     * the next tick after restoring is logged again.
+     *
+     * @throws IllegalArgumentException when the snapshot is of a different map or number of agents
+     */
+    public void restore(Snapshot snapshot) {
+        if (snapshot.nbHorzCells != nbHorzCells || snapshot.nbVertCells != nbVertCells
+                || snapshot.pusherCount != pusherScripts.length || snapshot.bomberCount != bomberScripts.length) {
+            throw new IllegalArgumentException("Snapshot of a " + snapshot.nbHorzCells + "x" + snapshot.nbVertCells
+                    + " map with " + snapshot.pusherCount + " pushers and " + snapshot.bomberCount
+                    + " bombers does not fit this game");
+        }
+        for (int t = 0; t < layers.length; t++) {
+            layers[t].restore(snapshot.layers[t]);
+        }
+        gameTick = snapshot.gameTick;
+        autoMovementIndex = snapshot.autoMovementIndex;
+        oresCollected = snapshot.oresCollected;
+        isFinished = snapshot.isFinished;
+        pusherScriptPositions.restore(snapshot.pusherScriptPositions);
+        for (int i = 0; i < pusherScripts.length; i++) {
+            pusherScripts[i].seek(pusherScriptPositions.get(i));
+        }
+        paths.restore(snapshot.paths);
+        pusherDirections.restore(snapshot.pusherDirections);
+        pusherWaits.restore(snapshot.pusherWaits);
+        detourTargets.restore(snapshot.detourTargets);
+        bomberScriptPositions.restore(snapshot.bomberScriptPositions);
+        for (int i = 0; i < bomberScripts.length; i++) {
+            bomberScripts[i].seek(bomberScriptPositions.get(i));
+        }
+        bombsLeft.restore(snapshot.bombsLeft);
+        events.restore(snapshot.events);
+        freeMarkers.restore(snapshot.freeMarkers);
+        freeMarkerCount = snapshot.freeMarkerCount;
+        fuseHandles.restore(snapshot.fuseHandles);
+        statistics.copyFrom(snapshot.statistics);
+    }
+
+    /**
+     * Note where each script is, so a snapshot need not ask the scripts
+     *
+     * @return whether the scripts can go back
+     */
+    private static boolean recordPositions(MovementScript[] scripts, CowIntArray positions) {
+        try {
+            for (int i = 0; i < scripts.length; i++) {
+                positions.set(i, scripts[i].getPosition());
+            }
+            return true;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Guide every pusher toward the next location of its script, spreading the pushers over the workers
+     */
+    private void autoMovePushers() {
+        if (workers > 1) {
+            IntStream.range(0, workers).parallel().forEach(planWorker);
+        } else if (pusherScripts.length > 0) {
+            planPushers(0);
+        }
+
+        // The copy-on-write arrays are only written here, in pusher order, as two workers may share a chunk
+        for (int pusher = 0; pusher < pusherScripts.length; pusher++) {
+            if (isSeekable) {
+                pusherScriptPositions.set(pusher, pusherScripts[pusher].getPosition());
+            }
+            if (plannedSteps[pusher] != NOT_PLANNED) {
+                MovementScript script = pusherScripts[pusher];
+                followPlan(pusher, script.getX(), script.getY(), plannedSteps[pusher], plannedPaths[pusher]);
+            }
+        }
+    }
+
+    /**
+     * Plan the pushers of one worker's share with that worker's planner into plannedPaths. Plans only read
+     * the board and each pusher's plan is its own, so the shares run at the same time and give the same
+     * plans in any order.
+     */
+    private void planPushers(int worker) {
+        PathPlanner planner = worker == 0 ? pathPlanner : workerPlanners[worker - 1];
+        for (int pusher = firstOfShare(worker); pusher < firstOfShare(worker + 1); pusher++) {
+            MovementScript script = pusherScripts[pusher];
+            plannedSteps[pusher] = NOT_PLANNED;
+            if (script.next() == MovementScript.MOVE && !isFinished) {
+                int steps = planner.plan(pushers.getX(pusher), pushers.getY(pusher), script.getX(), script.getY());
+                if (steps > 0 && (plannedPaths[pusher] == null || plannedPaths[pusher].length < steps)) {
+                    plannedPaths[pusher] = new int[Math.max(steps, 16)];
+                }
+                if (steps > 0) {
+                    System.arraycopy(planner.getPath(), 0, plannedPaths[pusher], 0, steps);
+                }
+                plannedSteps[pusher] = steps;
+            }
+        }
+    }
+
+    private int firstOfShare(int worker) {
+        return (int) ((long) pusherScripts.length * worker / Math.max(workers, 1));
+    }
+
+    private void autoMoveBombers() {
+        for (int bomber = 0; bomber < bomberScripts.length; bomber++) {
+            MovementScript script = bomberScripts[bomber];
+            int opcode = script.next();
+            if (isSeekable) {
+                bomberScriptPositions.set(bomber, script.getPosition());
+            }
+            if (opcode == MovementScript.BOMB) {
+                placeBomb(bomber, bombers.getX(bomber), bombers.getY(bomber));
+            } else if (opcode == MovementScript.MOVE) {
+                if (bombers.getX(bomber) != script.getX() || bombers.getY(bomber) != script.getY()) {
+                    // Fuel is not modelled yet, so moves cost none
+                    statistics.recordBomberMove(0);
+                }
+                bombers.setLocation(bomber, script.getX(), script.getY());
+            }
+        }
+    }
+
+    /**
+     * Set how many threads plan and resolve the pushers' moves. Each worker takes at least
+     * {@link #PUSHERS_PER_WORKER} pushers, so small fleets stay on the calling thread. The outcome of a tick
+     * does not depend on the number of workers.
+     */
+    public void setWorkers(int workers) {
+        this.workers = Math.max(1, Math.min(workers, pusherScripts.length / PUSHERS_PER_WORKER));
+        if (workerPlanners.length < this.workers - 1) {
+            int oldLength = workerPlanners.length;
+            workerPlanners = Arrays.copyOf(workerPlanners, this.workers - 1);
+            for (int i = oldLength; i < workerPlanners.length; i++) {
+                workerPlanners[i] = new PathPlanner(staticMap, rocks, hardRocks, bombers);
+            }
+        }
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Place a bomb of the first bomber
+     *
+     * @see #placeBomb(int, int, int)
+     */
+    public boolean placeBomb(int x, int y) {
+        return bomberScripts.length > 0 && placeBomb(0, x, y);
+    }
+
+    /**
+     * Place a bomb marker that detonates {@link #BOMB_FUSE_TICKS} ticks later. Nothing happens once the
+     * bomber has placed bomb.max bombs.
+     *
+     * @return whether the bomb was placed
+     */
+    public boolean placeBomb(int bomber, int x, int y) {
+        if (bombsLeft.get(bomber) == 0 || isFinished) {
+            return false;
+        }
+        bombsLeft.set(bomber, bombsLeft.get(bomber) - 1);
+        int marker;
+        if (freeMarkerCount > 0) {
+            marker = freeMarkers.get(--freeMarkerCount);
+            bombMarkers.setLocation(marker, x, y);
+            bombMarkers.show(marker);
+        } else {
+            marker = bombMarkers.add(x, y);
+            fuseHandles.grow(marker + 1);
+        }
+        fuseHandles.set(marker, events.schedule(gameTick + BOMB_FUSE_TICKS, DETONATION_EVENT, marker));
+        statistics.recordBombPlaced();
+        return true;
+    }
+
+    private void fireEvent(int kind, int payload) {
+        if (kind == DETONATION_EVENT) {
+            bombMarkers.hide(payload);
+            blasts.add(payload);
+        }
+    }
+
+    /**
+     * Set off the bombs queued in this tick. A blast destroys the boulders and hard rocks on the bomb's cell
+     * and the four cells next to it, and sets off the bombs there at once instead of when their fuse ends.
+     * Each affected cell is looked up once in the layers' cell index, so the work grows with the number of
+     * cells hit rather than with the number of actors on the map.
+     */
+    private void resolveBlasts() {
+        while (!blasts.isEmpty()) {
+            int marker = blasts.poll();
+            freeMarkers.grow(freeMarkerCount + 1);
+            freeMarkers.set(freeMarkerCount++, marker);
+
+            int count = blasts.blastCells(bombMarkers.getX(marker), bombMarkers.getY(marker), blastCells);
+            for (int i = 0; i < count; i++) {
+                int x = blastCells[i] % nbHorzCells;
+                int y = blastCells[i] / nbHorzCells;
+                destroyAll(rocks, x, y);
+                destroyAll(hardRocks, x, y);
+                for (int other = bombMarkers.indexAt(x, y); other >= 0; other = bombMarkers.indexAt(x, y)) {
+                    // Caught in the blast: goes off in this tick, so its fuse event must not fire later
+                    events.cancel(fuseHandles.get(other));
+                    bombMarkers.hide(other);
+                    blasts.add(other);
+                }
+            }
+        }
+    }
+
+    private void destroyAll(ActorLayer layer, int x, int y) {
+        for (int rock = layer.indexAt(x, y); rock >= 0; rock = layer.indexAt(x, y)) {
+            layer.hide(rock);
+            statistics.recordRockDestroyed();
+        }
+    }
+
+    /**
+     * Guide the first pusher
+     *
+     * @see #guidePusherToLocation(int, int, int)
+     */
+    public void guidePusherToLocation(int targetX, int targetY) {
+        if (pusherScripts.length > 0) {
+            guidePusherToLocation(0, targetX, targetY);
+        }
+    }
+
+    /**
+     * Plan the shortest path for a pusher around rocks, hard rocks and bombers. When the target cannot
+     * be reached, fall back to a straight-line path, horizontal first and then vertical, that stops at the
+     * first blocked cell.
+     */
+    public void guidePusherToLocation(int pusher, int targetX, int targetY) {
+        guidePusher(pusher, targetX, targetY, pathPlanner);
+    }
+
+    private void guidePusher(int pusher, int targetX, int targetY, PathPlanner planner) {
+        if (isFinished) {
+            return;
+        }
+        int steps = planner.plan(pushers.getX(pusher), pushers.getY(pusher), targetX, targetY);
+        followPlan(pusher, targetX, targetY, steps, planner.getPath());
+    }
+
+    /**
+     * Give a pusher the path planned for it, or the straight-line fallback when the target is unreachable.
+     * A detour planned around other pushers is kept while it leads to the same target. The pusher's wait
+     * count carries on while it is sent the same way again, as by a script repeating its waypoint every
+     * tick, and starts afresh when the next cell or the end of its path changes.
+     */
+    private void followPlan(int pusher, int targetX, int targetY, int steps, int[] path) {
+        boolean isDone = paths.isDone(pusher);
+        if (!isDone && detourTargets.get(pusher) == targetY * nbHorzCells + targetX) {
+            return;
+        }
+        if (detourTargets.get(pusher) != -1) {
+            detourTargets.set(pusher, -1);
+        }
+        int oldNext = isDone ? -1 : paths.nextStep(pusher);
+        int oldLast = isDone ? -1 : paths.lastStep(pusher);
+        setPlan(pusher, targetX, targetY, steps, path);
+        int next = paths.isDone(pusher) ? -1 : paths.nextStep(pusher);
+        int last = paths.isDone(pusher) ? -1 : paths.lastStep(pusher);
+        if ((next != oldNext || last != oldLast) && pusherWaits.get(pusher) != 0) {
+            pusherWaits.set(pusher, 0);
+        }
+    }
+
+    /**
+     * Replace a pusher's path with the planned one, or with the straight-line fallback
+     */
+    private void setPlan(int pusher, int targetX, int targetY, int steps, int[] path) {
+        if (steps != PathPlanner.UNREACHABLE) {
+            paths.set(pusher, path, steps);
+            return;
+        }
+        paths.clear(pusher);
+
+        int pusherX = pushers.getX(pusher);
+        int pusherY = pushers.getY(pusher);
+        int lastX = pusherX;
+        int lastY = pusherY;
+        if (pusherX != targetX) {
+            int dx = targetX > pusherX ? 1 : -1;
+            for (int x = pusherX + dx; x != targetX + dx; x += dx) {
+                if (!canMove(x, pusherY)) {
+                    break; // Stop if path is blocked
+                }
+                paths.add(pusher, pusherY * nbHorzCells + x);
+                lastX = x;
+            }
+        }
+
+        // Move vertically from the end of horizontal movement
+        if (lastY != targetY) {
+            int dy = targetY > lastY ? 1 : -1;
+            for (int y = lastY + dy; y != targetY + dy; y += dy) {
+                if (!canMove(lastX, y)) {
+                    break;
+                }
+                paths.add(pusher, y * nbHorzCells + lastX);
+            }
+        }
+    }
+
+    /**
+     * Move every pusher one step along its path, all at once.
+     * <p>
+     * First each pusher works out its step from the board as it is before anyone moves: the cell it enters,
+     * whether that cell is blocked, and the ore it pushes and where to. This only reads the board, so large
+     * fleets do it in parallel. Then, in pusher order, each step claims the cells it needs: the cell entered
+     * and the ore's destination. A step whose cells are already claimed by a lower pusher waits and is tried
+     * again next tick, so of two pushers going for the same ore or the same cell the first one wins. A pusher
+     * never enters a cell another pusher stood on at the start of the tick, which rules out swaps and trains.
+     * Finally the winning steps are applied in pusher order, and pushers that have waited
+     * {@link #MAX_WAIT_TICKS} ticks plan again around the others.
+     */
+    private void resolveMoves() {
+        if (workers > 1) {
+            IntStream.range(0, workers).parallel().forEach(intentWorker);
+        } else if (intents.length > 0) {
+            intendSteps(0);
+        }
+
+        claims.clear();
+        for (int pusher = 0; pusher < intents.length; pusher++) {
+            if (intents[pusher] != IDLE) {
+                faceStep(pusher);
+            }
+            if (intents[pusher] == MOVE) {
+                boolean isFree = !claims.isClaimed(intendedCells[pusher]) &&
+                        (intendedOres[pusher] < 0 || !claims.isClaimed(intendedOreCells[pusher]));
+                if (isFree) {
+                    claims.claim(intendedCells[pusher]);
+                    if (intendedOres[pusher] >= 0) {
+                        claims.claim(intendedOreCells[pusher]);
+                    }
+                } else {
+                    intents[pusher] = WAIT;
+                }
+            }
+        }
+
+        for (int pusher = 0; pusher < intents.length; pusher++) {
+            if (intents[pusher] == MOVE) {
+                applyStep(pusher);
+            } else if (intents[pusher] == BLOCKED) {
+                // Clear path if blocked
+                paths.clear(pusher);
+            }
+            int waits = intents[pusher] == WAIT ? pusherWaits.get(pusher) + 1 : 0;
+            if (waits != pusherWaits.get(pusher)) {
+                pusherWaits.set(pusher, waits);
+            }
+        }
+
+        for (int pusher = 0; pusher < intents.length; pusher++) {
+            if (pusherWaits.get(pusher) >= MAX_WAIT_TICKS) {
+                planAroundPushers(pusher);
+            }
+        }
+    }
+
+    /**
+     * Plan a waiting pusher's way to the end of its path around the pushers as they stand now. When they
+     * close every way, as in a corridor one cell wide, it keeps its path and tries again after waiting as
+     * long again. A detour is kept while the pusher is sent to the same target. The pusher in its next cell
+     * keeps its own path and starts waiting afresh, so of two pushers meeting head-on only one steps aside.
+     */
+    private void planAroundPushers(int pusher) {
+        int other = pushers.indexAt(intendedCells[pusher] % nbHorzCells, intendedCells[pusher] / nbHorzCells);
+        if (other >= 0) {
+            pusherWaits.set(other, 0);
+        }
+        pusherWaits.set(pusher, 0);
+        int target = paths.lastStep(pusher);
+        int steps = crowdPlanner.plan(pushers.getX(pusher), pushers.getY(pusher), target % nbHorzCells,
+                target / nbHorzCells);
+        if (steps != PathPlanner.UNREACHABLE) {
+            paths.set(pusher, crowdPlanner.getPath(), steps);
+            detourTargets.set(pusher, target);
+        }
+    }
+
+    /**
+     * Turn a pusher toward the cell it steps into, so it faces the ore it pushes
+     */
+    private void faceStep(int pusher) {
+        int nextX = intendedCells[pusher] % nbHorzCells;
+        int nextY = intendedCells[pusher] / nbHorzCells;
+        int currentX = pushers.getX(pusher);
+        int currentY = pushers.getY(pusher);
+        int direction = pusherDirections.get(pusher);
+        if (nextX > currentX) direction = 0;
+        else if (nextX < currentX) direction = 180;
+        else if (nextY > currentY) direction = 90;
+        else if (nextY < currentY) direction = 270;
+        if (direction != pusherDirections.get(pusher)) {
+            pusherDirections.set(pusher, direction);
+        }
+    }
+
+    /**
+     * Work out the steps of the pushers of one worker's share
+     */
+    private void intendSteps(int worker) {
+        for (int pusher = firstOfShare(worker); pusher < firstOfShare(worker + 1); pusher++) {
+            if (paths.isDone(pusher)) {
+                intents[pusher] = IDLE;
+                continue;
+            }
+            int next = paths.nextStep(pusher);
+            intendedCells[pusher] = next;
+            intents[pusher] = intendMove(pusher, next % nbHorzCells, next / nbHorzCells);
+        }
+    }
+
+    /**
+     * Work out what happens when a pusher moves into a cell, without changing anything. The ore it would
+     * push and the ore's destination are left in intendedOres and intendedOreCells.
+     *
+     * @return MOVE, BLOCKED, or WAIT when another pusher stands in the cell
+     */
+    private byte intendMove(int pusher, int x, int y) {
+        intendedOres[pusher] = -1;
+        // First check if location has impassable obstacles (border, rocks, bomber)
+        if (isBorder(x, y) || bombers.isOccupied(x, y)) {
+            return BLOCKED;
+        }
+        if (hardRocks.isOccupied(x, y) || rocks.isOccupied(x, y)) {
+            return BLOCKED;
+        }
+        int other = pushers.indexAt(x, y);
+        if (other >= 0 && other != pusher) {
+            return WAIT;
+        }
+
+        // Check if there's an ore at the target location
+        int ore = ores.indexAt(x, y);
+        if (ore >= 0) {
+            // The ore is pushed one cell further in the direction the pusher moves
+            int dx = Integer.signum(x - pushers.getX(pusher));
+            int dy = dx != 0 ? 0 : Integer.signum(y - pushers.getY(pusher));
+            if (dx == 0 && dy == 0) {
+                dx = 1;
+            }
+            int destinationX = x + dx;
+            int destinationY = y + dy;
+            if (!canOreMoveToLocation(ore, destinationX, destinationY)) {
+                return BLOCKED; // Ore can't be pushed, so pusher can't move
+            }
+            intendedOres[pusher] = ore;
+            intendedOreCells[pusher] = destinationY * nbHorzCells + destinationX;
+        }
+        return MOVE;
+    }
+
+    private void applyStep(int pusher) {
+        if (intendedOres[pusher] >= 0) {
+            moveOreToLocation(intendedOres[pusher], intendedOreCells[pusher] % nbHorzCells,
+                    intendedOreCells[pusher] / nbHorzCells);
+        }
+        pushers.setLocation(pusher, intendedCells[pusher] % nbHorzCells, intendedCells[pusher] / nbHorzCells);
+        statistics.recordPusherMove(0);
+        paths.advance(pusher);
+    }
+
+    /**
+     * Check whether the first pusher can move into a cell and push the ore there, if any, out of the way
+     */
+    boolean canMoveWithOrePushing(int x, int y) {
+        if (intendMove(0, x, y) != MOVE) {
+            return false;
+        }
+        if (intendedOres[0] >= 0) {
+            moveOreToLocation(intendedOres[0], intendedOreCells[0] % nbHorzCells, intendedOreCells[0] / nbHorzCells);
+        }
+        return true;
+    }
+
+    private boolean canOreMoveToLocation(int ore, int x, int y) {
+        if (!isInside(x, y) || isBorder(x, y)) {
+            return false;
+        }
+        if (rocks.isOccupied(x, y) || hardRocks.isOccupied(x, y) ||
+                pushers.isOccupied(x, y) || bombers.isOccupied(x, y)) {
+            return false;
+        }
+
+        // Check for another ore at destination
+        int otherOre = ores.indexAt(x, y);
+        return otherOre < 0 || otherOre == ore;
+    }
+
+    private void moveOreToLocation(int ore, int x, int y) {
+        ores.setLocation(ore, x, y);
+
+        // An ore pushed onto a target is collected
+        if (targets.isOccupied(x, y)) {
+            oresCollected++;
+            ores.hide(ore);
+        }
+    }
+
+    /**
+     * Check if we can move the pusher into the location
+     */
+    private boolean canMove(int x, int y) {
+        // Test if try to move into border, rock or heavy rock
+        if (isBorder(x, y)) {
+            return false;
+        }
+        return !hardRocks.isOccupied(x, y) && !rocks.isOccupied(x, y) && !bombers.isOccupied(x, y);
+    }
+
+    private boolean isInside(int x, int y) {
+        return x >= 0 && x < nbHorzCells && y >= 0 && y < nbVertCells;
+    }
+
+    /**
+     * Cells outside the grid count as border
+     */
+    private boolean isBorder(int x, int y) {
+        return staticMap.isBorder(x, y);
+    }
+
+    /**
+     * The method will generate a log result for all the movements of all actors
+     * The log result will be tested against our expected output.
+     */
+    private void updateLogResult() {
+        logLine.setLength(0);
+        appendLogLine(logLine, autoMovementIndex, layers);
+        if (isHashLogged) {
+            appendHash(logLine, getStateHash());
+        }
+        logSink.writeLine(logLine);
+    }
+
+    /**
+     * Append the state hash field that ends a log line written with {@link #HASH_PROPERTY} set
+     */
+    static void appendHash(StringBuilder line, long hash) {
+        line.append("#Hash:");
+        for (int shift = Long.SIZE - 4; shift >= 0; shift -= 4) {
+            line.append(Character.forDigit((int) (hash >>> shift) & 0xf, 16));
+        }
+    }
+
+    /**
+     * Format one log line from the given layers, indexed by element type ordinal
+     */
+    static void appendLogLine(StringBuilder line, int movementIndex, ActorLayer[] layers) {
+        line.append(movementIndex).append('#');
+        for (int i = 0; i < LOGGED_TYPES.length; i++) {
+            ElementType type = LOGGED_TYPES[i];
+            line.append(type.getShortType());
+            layers[type.ordinal()].appendLocations(line);
+            if (type == ElementType.PUSHER) {
+                line.append("-Fuel:100");
+            }
+            if (i < LOGGED_TYPES.length - 1) {
+                line.append('#');
+            }
+        }
+    }
+
+    ActorLayer getLayer(ElementType type) {
+        return layers[type.ordinal()];
+    }
+
+    PathPlanner getPathPlanner() {
+        return pathPlanner;
+    }
+
+    /**
+     * A 64-bit Zobrist hash of the state: every visible actor's type and cell, the ores collected and the fuel
+     * used. Each layer keeps its part up to date as actors move, are pushed, hidden or destroyed, so this costs
+     * the same however many actors there are. Equal states hash alike on every JDK and machine, so comparing
+     * the hashes of two runs tick by tick finds where they diverged; see {@link HashVerifier}.
+     */
+    public long getStateHash() {
+        int fuelUsed = statistics.getPusherFuelUsed() + statistics.getBomberFuelUsed();
+        long hash = StateHash.countKey(StateHash.ORES_COLLECTED, oresCollected)
+                + StateHash.countKey(StateHash.FUEL_USED, fuelUsed);
+        for (ActorLayer layer : layers) {
+            hash += layer.getHash();
+        }
+        return hash;
+    }
+
+    /**
+     * @return whether every log line ends with the state hash, as set by {@link #HASH_PROPERTY}
+     */
+    public boolean isHashLogged() {
+        return isHashLogged;
+    }
+
+    public MapGrid getGrid() {
+        return grid;
+    }
+
+    public int getPusherCount() {
+        return pusherScripts.length;
+    }
+
+    public int getBomberCount() {
+        return bomberScripts.length;
+    }
+
+    /**
+     * @return the direction of the first pusher, or 0 when there is none
+     */
+    public int getPusherDirection() {
+        return pusherScripts.length > 0 ? pusherDirections.get(0) : 0;
+    }
+
+    public int getPusherDirection(int pusher) {
+        return pusherDirections.get(pusher);
+    }
+
+    /**
+     * @return the total length of the pushers' current paths
+     */
+    private int getPathLength() {
+        int length = 0;
+        for (int pusher = 0; pusher < paths.size(); pusher++) {
+            length += paths.length(pusher);
+        }
+        return length;
+    }
+
+    /**
+     * @return the steps the pushers still have to walk on their current paths
+     */
+    private int getPathRemaining() {
+        int remaining = 0;
+        for (int pusher = 0; pusher < paths.size(); pusher++) {
+            remaining += paths.length(pusher) - paths.index(pusher);
+        }
+        return remaining;
+    }
+
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Replace the clock chosen by the clock.mode property, e.g. with a {@link VirtualClock} to fast-forward
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
+    }
+
+    public int getSimulationPeriod() {
+        return simulationPeriod;
+    }
+
+    /**
+     * @return the game time left in seconds
+     */
+    public double getGameDuration() {
+        return (durationMillis - (long) gameTick * simulationPeriod) / (double) ONE_SECOND;
+    }
+
+    public int getGameTick() {
+        return gameTick;
+    }
+
+    public int getOresCollected() {
+        return oresCollected;
+    }
+
+    public int getOresWinning() {
+        return oresWinning;
+    }
+
+    public int getMaxNumberOfBombs() {
+        return maxNumberOfBombs;
+    }
+
+    /**
+     * @return the bombs all bombers can still place
+     */
+    public int getBombsLeft() {
+        int left = 0;
+        for (int bomber = 0; bomber < bomberScripts.length; bomber++) {
+            left += bombsLeft.get(bomber);
+        }
+        return left;
+    }
+
+    public int getBombsLeft(int bomber) {
+        return bombsLeft.get(bomber);
+    }
+
+    /**
+     * @return the ticks until the next placed bomb goes off, or -1 when none is waiting
+     */
+    public int getTicksToNextDetonation() {
+        int next = -1;
+        for (int marker = 0; marker < bombMarkers.size(); marker++) {
+            if (bombMarkers.isVisible(marker)) {
+                int ticks = events.getDeadline(fuseHandles.get(marker)) - gameTick;
+                if (next < 0 || ticks < next) {
+                    next = ticks;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @return the number of bomb fuses and other delayed events still to fire
+     */
+    public int getPendingEvents() {
+        return events.size();
+    }
+
+    /**
+     * @return the index of the next scripted movement, which starts every log line
+     */
+    public int getAutoMovementIndex() {
+        return autoMovementIndex;
+    }
+
+    public boolean isAutoMode() {
+        return isAutoMode;
+    }
+
+    /**
+     * Send the log to another sink, e.g. a {@link FileLogSink}. Must be called before the first tick.
+     */
+    public void setLogSink(GameLogSink logSink) {
+        this.logSink = logSink;
+    }
+
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    public GameStatistics getStatistics() {
+        return statistics;
+    }
+
+    public GameLogSink getLogSink() {
+        return logSink;
+    }
+
+    /**
+     * @return the log so far, or null when it is streamed to a sink other than a {@link MemoryLogSink}
+     */
+    public String getLogResult() {
+        return logSink instanceof MemoryLogSink ? ((MemoryLogSink) logSink).getLogResult() : null;
+    }
+}
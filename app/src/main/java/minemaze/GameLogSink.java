@@ -0,0 +1,22 @@
+package minemaze;
+
+/**
+ * Receives the game log as it is produced: one line per tick, then the outcome once the game is over.
+ */
+public interface GameLogSink {
+    /**
+     * Write the line of one tick. The line has no line break; the sink adds it.
+     */
+    void writeLine(CharSequence line);
+
+    /**
+     * Write the outcome ("You won" or "You lost") after the last tick. It is not followed by a line break.
+     */
+    void writeOutcome(String outcome);
+
+    /**
+     * Flush and release the sink. The engine never closes a sink, its owner does.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,153 @@
+package minemaze;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Live measurements of a running game: a latency histogram per tick phase and a set of gauges, which
+ * include the {@link GameStatistics} counters. With a metrics file, a snapshot line of
+ * {@code key=value} pairs is appended every {@code interval} ticks and once more when the game ends.
+ */
+public class GameMetrics {
+    public static final String FILE_PROPERTY = "metrics.file";
+    public static final String INTERVAL_PROPERTY = "metrics.interval";
+    public static final int DEFAULT_INTERVAL = 100;
+
+    public enum Phase { TICK, MOVE_RESOLUTION, COLLISION, LOG, RENDER }
+
+    public enum Gauge {
+        PATH_LENGTH, PATH_REMAINING, ORES_COLLECTED,
+        PUSHER_MOVES, BOMBER_MOVES, BOMBS_PLACED, ROCKS_DESTROYED, BOOSTERS_USED
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final Gauge[] GAUGES = Gauge.values();
+    // Snapshot keys, so writing a snapshot does not lowercase the enum names every time
+    private static final String[] PHASE_NAMES = new String[PHASES.length];
+    private static final String[] GAUGE_NAMES = new String[GAUGES.length];
+    static {
+        for (Phase phase : PHASES) {
+            PHASE_NAMES[phase.ordinal()] = phase.name().toLowerCase();
+        }
+        for (Gauge gauge : GAUGES) {
+            GAUGE_NAMES[gauge.ordinal()] = gauge.name().toLowerCase();
+        }
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+    private final long[] gauges = new long[GAUGES.length];
+    private final StringBuilder line = new StringBuilder();
+    private char[] chars = new char[256];
+    private Writer writer;
+    private int interval = DEFAULT_INTERVAL;
+
+    public GameMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+    }
+
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    public void setGauge(Gauge gauge, long value) {
+        gauges[gauge.ordinal()] = value;
+    }
+
+    public long getGauge(Gauge gauge) {
+        return gauges[gauge.ordinal()];
+    }
+
+    /**
+     * Append snapshots to the given file, replacing its content
+     *
+     * @param interval write a snapshot every this many ticks
+     */
+    public void exportTo(Path metricsFile, int interval) throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be at least 1: " + interval);
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(metricsFile), StandardCharsets.UTF_8));
+        this.interval = interval;
+    }
+
+    /**
+     * Called by the engine after every tick; writes a snapshot when one is due
+     */
+    void tickEnded(int tick) {
+        if (writer != null && tick % interval == 0) {
+            writeSnapshot(tick);
+        }
+    }
+
+    /**
+     * Write the last snapshot and close the metrics file
+     */
+    void close(int tick) {
+        if (writer == null) {
+            return;
+        }
+        writeSnapshot(tick);
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer = null;
+        }
+    }
+
+    private void writeSnapshot(int tick) {
+        line.setLength(0);
+        appendSnapshot(line.append("tick=").append(tick));
+        line.append('\n');
+        if (chars.length < line.length()) {
+            chars = new char[line.length() * 2];
+        }
+        line.getChars(0, line.length(), chars, 0);
+        try {
+            writer.write(chars, 0, line.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Append count, mean, p50, p99 and max of every phase in microseconds, then every gauge
+     */
+    public StringBuilder appendSnapshot(StringBuilder snapshot) {
+        for (Phase phase : PHASES) {
+            LatencyHistogram histogram = histograms[phase.ordinal()];
+            String name = PHASE_NAMES[phase.ordinal()];
+            snapshot.append(' ').append(name).append(".count=").append(histogram.getCount());
+            appendMicros(snapshot, name, ".mean", (long) histogram.getMean());
+            appendMicros(snapshot, name, ".p50", histogram.getValueAtQuantile(0.5));
+            appendMicros(snapshot, name, ".p99", histogram.getValueAtQuantile(0.99));
+            appendMicros(snapshot, name, ".max", histogram.getMax());
+        }
+        for (Gauge gauge : GAUGES) {
+            snapshot.append(' ').append(GAUGE_NAMES[gauge.ordinal()]).append('=').append(gauges[gauge.ordinal()]);
+        }
+        return snapshot;
+    }
+
+    private static void appendMicros(StringBuilder snapshot, String name, String suffix, long nanos) {
+        // Three decimals without going through String.format
+        snapshot.append(' ').append(name).append(suffix).append("_us=").append(nanos / 1000).append('.');
+        long fraction = nanos % 1000;
+        if (fraction < 100) snapshot.append('0');
+        if (fraction < 10) snapshot.append('0');
+        snapshot.append(fraction);
+    }
+}
@@ -0,0 +1,188 @@
+package minemaze;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays games sent over HTTP in a long-running JVM, so a run does not pay for JVM and AWT startup.
+ * <p>
+ * POST a properties file to {@link #GAMES_PATH}. The game is parsed, then played headless on the virtual
+ * thread that handles the request, and the response streams its log as the ticks are played: one line per
+ * tick, the outcome, a blank line and the {@link GameStatistics} report. The game runs on a virtual clock
+ * unless the properties set clock.mode. A relative map.file is read from the server's working directory.
+ * <p>
+ * At most {@code maxGames} games play at once; a request that finds no free slot is answered with 503 at
+ * once rather than queued. A properties file that does not parse is answered with 400. The server only
+ * listens on the loopback address.
+ * <p>
+ * Usage: {@code GameServer [--port N] [--max-games N]}
+ */
+public class GameServer implements AutoCloseable {
+    public static final String GAMES_PATH = "/games";
+    public static final int DEFAULT_PORT = 8086;
+    public static final String PORT_OPTION = "--port";
+    public static final String MAX_GAMES_OPTION = "--max-games";
+    // Seconds a rejected client is asked to wait before trying again
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int maxGames;
+    private final Semaphore slots;
+    private final AtomicLong gamesPlayed = new AtomicLong();
+    private final AtomicLong gamesRejected = new AtomicLong();
+
+    /**
+     * Start listening on the loopback address
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @param maxGames how many games may play at once
+     */
+    public GameServer(int port, int maxGames) throws IOException {
+        if (maxGames < 1) {
+            throw new IllegalArgumentException("maxGames must be at least 1: " + maxGames);
+        }
+        this.maxGames = maxGames;
+        slots = new Semaphore(maxGames);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // One virtual thread per request, so a game blocked on its clock or its client holds no platform thread
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(GAMES_PATH, this::handle);
+        server.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int maxGames = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(PORT_OPTION)) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals(MAX_GAMES_OPTION)) {
+                maxGames = Integer.parseInt(args[++i]);
+            }
+        }
+        GameServer server = new GameServer(port, maxGames);
+        System.out.println("Playing up to " + maxGames + " games at http://localhost:" + server.getPort()
+                + GAMES_PATH);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "Send a properties file with POST");
+                return;
+            }
+            if (!slots.tryAcquire()) {
+                gamesRejected.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+                respond(exchange, 503, "All " + maxGames + " game slots are busy");
+                return;
+            }
+            try {
+                play(exchange);
+            } finally {
+                slots.release();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void play(HttpExchange exchange) throws IOException {
+        GameEngine engine;
+        try {
+            Properties properties = new Properties();
+            properties.load(exchange.getRequestBody());
+            if (properties.getProperty(GameClock.CLOCK_PROPERTY) == null) {
+                properties.setProperty(GameClock.CLOCK_PROPERTY, GameClock.VIRTUAL_MODE);
+            }
+            engine = new GameEngine(properties, MapLoader.fromProperties(properties));
+        } catch (IOException | RuntimeException e) {
+            respond(exchange, 400, e.toString());
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        // Length 0: chunked, so each line reaches the client as its tick ends
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+        engine.setLogSink(new StreamLogSink(body, true));
+        try {
+            engine.run();
+            write(body, "\n\n" + engine.getStatistics().generateReport() + "\n");
+            gamesPlayed.incrementAndGet();
+        } catch (UncheckedIOException e) {
+            // The client went away; the game stops with nobody to read it
+        } catch (RuntimeException e) {
+            // The status is already sent, so the error can only go into the log
+            write(body, "\nError: " + e + "\n");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void write(OutputStream body, String text) throws IOException {
+        body.write(text.getBytes(StandardCharsets.UTF_8));
+        body.flush();
+    }
+
+    /**
+     * @return the port the server listens on, useful when it was started on port 0
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public int getMaxGames() {
+        return maxGames;
+    }
+
+    /**
+     * @return how many games are playing now
+     */
+    public int getRunningGames() {
+        return maxGames - slots.availablePermits();
+    }
+
+    /**
+     * @return how many games played to the end
+     */
+    public long getGamesPlayed() {
+        return gamesPlayed.get();
+    }
+
+    /**
+     * @return how many games were turned away because every slot was busy
+     */
+    public long getGamesRejected() {
+        return gamesRejected.get();
+    }
+
+    /**
+     * Stop accepting games and stop the ones still playing
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
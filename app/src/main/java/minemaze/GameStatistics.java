@@ -23,6 +23,19 @@ public class GameStatistics {
         boostersUsed = 0;
     }
     
+    /**
+     * Take the counts of another statistics object
+     */
+    public void copyFrom(GameStatistics other) {
+        pusherMoves = other.pusherMoves;
+        pusherFuelUsed = other.pusherFuelUsed;
+        bomberMoves = other.bomberMoves;
+        bomberFuelUsed = other.bomberFuelUsed;
+        bombsPlaced = other.bombsPlaced;
+        rocksDestroyed = other.rocksDestroyed;
+        boostersUsed = other.boostersUsed;
+    }
+    
     public void recordPusherMove(int fuelConsumed) {
         pusherMoves++;
         pusherFuelUsed += fuelConsumed;
@@ -0,0 +1,118 @@
+package minemaze;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that a scenario plays out the same every time by comparing {@link GameEngine#getStateHash() state
+ * hashes} tick by tick.
+ * <p>
+ * A trace is the state hash after every tick. {@link #record} plays a scenario headless and returns its
+ * trace, and {@link #readTrace} reads one back from a log written with log.hash, so a run on one JDK or
+ * machine can be checked against a log from another without diffing whole logs.
+ * <p>
+ * Usage: {@code HashVerifier <properties file> [<log file with hashes>]}. Without a log, the scenario is
+ * played on one worker and on as many as the common pool has, and the two traces are compared. Exits with
+ * status 1 and reports the first divergent tick when they differ.
+ */
+public class HashVerifier {
+    public static final int NO_DIVERGENCE = -1;
+    private static final String HASH_FIELD = "#Hash:";
+
+    // Hashes come from the engine, so the log lines themselves are not needed
+    private static final GameLogSink DISCARD = new GameLogSink() {
+        @Override
+        public void writeLine(CharSequence line) {
+        }
+
+        @Override
+        public void writeOutcome(String outcome) {
+        }
+    };
+
+    public static void main(String[] args) throws IOException {
+        Path scenario = Paths.get(args[0]);
+        Properties properties = PropertiesLoader.loadPropertiesFile(scenario);
+        if (properties == null) {
+            System.err.println("Cannot read " + scenario);
+            System.exit(2);
+        }
+        long[] expected = args.length > 1 ? readTrace(Paths.get(args[1])) : record(properties, scenario.getParent(), 1);
+        long[] actual = record(properties, scenario.getParent(), ForkJoinPool.getCommonPoolParallelism());
+        int tick = firstDivergentTick(expected, actual);
+        if (tick == NO_DIVERGENCE) {
+            System.out.println("No divergence in " + actual.length + " ticks");
+            return;
+        }
+        System.out.println("First divergent tick: " + tick + " (expected " + describe(expected, tick)
+                + ", got " + describe(actual, tick) + ")");
+        System.exit(1);
+    }
+
+    private static String describe(long[] trace, int tick) {
+        return tick <= trace.length ? Long.toHexString(trace[tick - 1]) : "the end of the game";
+    }
+
+    /**
+     * Play a scenario headless on a virtual clock
+     *
+     * @param directory where a relative map.file is looked up first, or null
+     * @return the state hash after every tick
+     */
+    public static long[] record(Properties properties, Path directory, int workers) throws IOException {
+        GameEngine engine = new GameEngine(properties, MapLoader.fromProperties(properties, directory));
+        engine.setClock(new VirtualClock());
+        engine.setWorkers(workers);
+        engine.setLogSink(DISCARD);
+        long[] trace = new long[64];
+        int ticks = 0;
+        while (engine.isRunning()) {
+            engine.tick();
+            if (ticks == trace.length) {
+                trace = Arrays.copyOf(trace, ticks * 2);
+            }
+            trace[ticks++] = engine.getStateHash();
+        }
+        engine.finish();
+        return Arrays.copyOf(trace, ticks);
+    }
+
+    /**
+     * Read the state hash of every tick line of a log written with {@link GameEngine#HASH_PROPERTY} set
+     *
+     * @throws IllegalArgumentException when a tick line has no hash
+     */
+    public static long[] readTrace(Path logFile) throws IOException {
+        try (LogReader reader = LogReader.open(logFile)) {
+            long[] trace = new long[reader.getTickCount()];
+            for (int tick = 0; tick < trace.length; tick++) {
+                String line = reader.getLine(tick);
+                int field = line.lastIndexOf(HASH_FIELD);
+                if (field < 0) {
+                    throw new IllegalArgumentException(logFile + ": tick " + (tick + 1)
+                            + " has no hash; write the log with " + GameEngine.HASH_PROPERTY + "=true");
+                }
+                trace[tick] = Long.parseUnsignedLong(line.substring(field + HASH_FIELD.length()), 16);
+            }
+            return trace;
+        }
+    }
+
+    /**
+     * @return the first tick, counting from 1, whose hashes differ or that only one trace reached,
+     * or {@link #NO_DIVERGENCE}
+     */
+    public static int firstDivergentTick(long[] expected, long[] actual) {
+        int ticks = Math.min(expected.length, actual.length);
+        for (int i = 0; i < ticks; i++) {
+            if (expected[i] != actual[i]) {
+                return i + 1;
+            }
+        }
+        return expected.length == actual.length ? NO_DIVERGENCE : ticks + 1;
+    }
+}
@@ -0,0 +1,235 @@
+package minemaze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Random access to the lines of a game log.
+ * <p>
+ * The log is indexed once: the offset of every line is kept in an {@code int[]}, or a {@code long[]} for
+ * logs over 2 GB. After that any line can be fetched, or the locations of one actor type parsed, without
+ * touching the rest of the log. Log files are memory-mapped rather than read onto the heap.
+ */
+public class LogReader implements AutoCloseable {
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = (int) SEGMENT_SIZE - 1;
+
+    private final FileChannel channel;
+    private final ByteBuffer[] segments;
+    private final long length;
+    private int[] intOffsets;
+    private long[] longOffsets;
+    private int lineCount;
+    private boolean hasOutcome;
+
+    private LogReader(FileChannel channel, ByteBuffer[] segments, long length) {
+        this.channel = channel;
+        this.segments = segments;
+        this.length = length;
+        buildIndex();
+    }
+
+    /**
+     * Memory-map a log file
+     */
+    public static LogReader open(Path logFile) throws IOException {
+        FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ);
+        long length = channel.size();
+        ByteBuffer[] segments = new ByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start));
+        }
+        return new LogReader(channel, segments, length);
+    }
+
+    /**
+     * Wrap a log that is already in memory
+     */
+    public static LogReader of(String logResult) {
+        byte[] bytes = logResult.getBytes(StandardCharsets.UTF_8);
+        return new LogReader(null, new ByteBuffer[]{ByteBuffer.wrap(bytes)}, bytes.length);
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) position & SEGMENT_MASK);
+    }
+
+    /**
+     * Record where every line starts; the final entry is one past the end of the last line
+     */
+    private void buildIndex() {
+        boolean isLarge = length > Integer.MAX_VALUE;
+        if (isLarge) {
+            longOffsets = new long[1024];
+        } else {
+            intOffsets = new int[1024];
+        }
+        addOffset(0);
+        for (long position = 0; position < length; position++) {
+            if (byteAt(position) == '\n') {
+                addOffset(position + 1);
+            }
+        }
+        // A last line without a line break is the outcome, like "You won"
+        hasOutcome = offset(lineCount - 1) < length;
+        if (hasOutcome) {
+            addOffset(length + 1);
+        }
+        lineCount--;
+    }
+
+    private void addOffset(long offset) {
+        if (intOffsets != null) {
+            if (lineCount == intOffsets.length) {
+                intOffsets = Arrays.copyOf(intOffsets, lineCount * 2);
+            }
+            intOffsets[lineCount++] = (int) offset;
+        } else {
+            if (lineCount == longOffsets.length) {
+                longOffsets = Arrays.copyOf(longOffsets, lineCount * 2);
+            }
+            longOffsets[lineCount++] = offset;
+        }
+    }
+
+    private long offset(int line) {
+        return intOffsets != null ? Integer.toUnsignedLong(intOffsets[line]) : longOffsets[line];
+    }
+
+    /**
+     * @return the number of lines, including the outcome line if the game ended
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the number of tick lines
+     */
+    public int getTickCount() {
+        return hasOutcome ? lineCount - 1 : lineCount;
+    }
+
+    /**
+     * @return "You won", "You lost", or null if the log has no outcome
+     */
+    public String getOutcome() {
+        return hasOutcome ? getLine(lineCount - 1) : null;
+    }
+
+    /**
+     * @return the line with the given index, without its line break
+     */
+    public String getLine(int index) {
+        checkIndex(index);
+        long start = offset(index);
+        byte[] bytes = new byte[(int) (offset(index + 1) - 1 - start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = byteAt(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the movement index that starts the given tick line
+     */
+    public int getMovementIndex(int tick) {
+        checkIndex(tick);
+        int value = 0;
+        for (long position = offset(tick); byteAt(position) != '#'; position++) {
+            value = value * 10 + byteAt(position) - '0';
+        }
+        return value;
+    }
+
+    /**
+     * Parse the locations of one actor type on a tick line
+     *
+     * @return x and y of every actor listed, as {x0, y0, x1, y1, ...}
+     */
+    public int[] getLocations(int tick, ElementType type) {
+        checkIndex(tick);
+        long position = offset(tick);
+        long end = offset(tick + 1) - 1;
+        byte[] name = type.getShortType().getBytes(StandardCharsets.US_ASCII);
+
+        // Fields are separated by '#', the first one holds the movement index
+        while (position < end) {
+            while (position < end && byteAt(position) != '#') {
+                position++;
+            }
+            position++;
+            if (matchesName(position, end, name)) {
+                return parseLocations(position + name.length, end);
+            }
+        }
+        return new int[0];
+    }
+
+    private boolean matchesName(long position, long end, byte[] name) {
+        if (position + name.length > end) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (byteAt(position + i) != name[i]) {
+                return false;
+            }
+        }
+        long after = position + name.length;
+        return after == end || byteAt(after) == ':' || byteAt(after) == '#';
+    }
+
+    private int[] parseLocations(long position, long end) {
+        int[] locations = new int[8];
+        int count = 0;
+        if (position >= end || byteAt(position) != ':') {
+            return new int[0];
+        }
+        position++;
+        while (position < end && isDigit(byteAt(position))) {
+            if (count + 2 > locations.length) {
+                locations = Arrays.copyOf(locations, locations.length * 2);
+            }
+            int x = 0;
+            while (position < end && isDigit(byteAt(position))) {
+                x = x * 10 + byteAt(position++) - '0';
+            }
+            position++; // '-'
+            int y = 0;
+            while (position < end && isDigit(byteAt(position))) {
+                y = y * 10 + byteAt(position++) - '0';
+            }
+            locations[count++] = x;
+            locations[count++] = y;
+            if (position >= end || byteAt(position) != ',') {
+                break;
+            }
+            position++;
+        }
+        return Arrays.copyOf(locations, count);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private void checkIndex(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Line " + line + " of " + lineCount);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
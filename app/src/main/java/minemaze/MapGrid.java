@@ -1,17 +1,27 @@
 package minemaze;
 import ch.aplu.jgamegrid.*;
 
-import java.util.Arrays;
-import java.util.Map;
-import java.util.stream.Collectors;
-
 public class MapGrid
 {
-  private int nbHorzCells = 20;
-  private int nbVertCells = 11;
-  private MineMaze.ElementType[][] mapElements; // = new MineMaze.ElementType[nbHorzCells][nbVertCells];
-  private int numberOfTargets = 0;
-  private final String map =
+  static final ElementType[] TYPES = ElementType.values();
+  // Map character to element type, null for characters that are not map elements
+  private static final ElementType[] TYPE_BY_CHAR = new ElementType[128];
+  static
+  {
+    for (ElementType type : TYPES)
+    {
+      TYPE_BY_CHAR[type.getMapElement()] = type;
+    }
+  }
+
+  private final int nbHorzCells;
+  private final int nbVertCells;
+  // Element type ordinal of every cell, row by row
+  private final byte[] cells;
+  private int numberOfTargets;
+  // Worked out on first use, then shared by every game on this map
+  private volatile StaticMap staticMap;
+  private static final String DEFAULT_MAP =
     "    xxxxx           " + // 0 (19)
     "    x...x           " + // 1
     "    x...x           " + // 2
@@ -23,23 +33,92 @@ public class MapGrid
     "xxxxx.....xPxx....ox" + // 8
     "    x.....xxxxxxxxxx" + // 9
     "    xxxxxxx         ";  //10
+  // Parsed once; every default grid shares its cells and static layer
+  private static final MapGrid DEFAULT = new MapGrid(20, 11, DEFAULT_MAP);
 
   public MapGrid()
   {
-    mapElements = new MineMaze.ElementType[nbHorzCells][nbVertCells];
-    Map<Character, MineMaze.ElementType> elementTypeMap = Arrays.stream(MineMaze.ElementType.values())
-            .collect(Collectors.toMap(MineMaze.ElementType::getMapElement, element -> element));
-    // Copy structure into integer array
-    for (int k = 0; k < nbVertCells; k++)
+    this(DEFAULT);
+  }
+
+  private MapGrid(MapGrid other)
+  {
+    this.nbHorzCells = other.nbHorzCells;
+    this.nbVertCells = other.nbVertCells;
+    this.cells = other.cells;
+    this.numberOfTargets = other.numberOfTargets;
+    this.staticMap = other.getStaticMap();
+  }
+
+  /**
+   * Build a grid from a map drawn row by row, nbHorzCells characters per row
+   */
+  MapGrid(int nbHorzCells, int nbVertCells, String map)
+  {
+    this(nbHorzCells, nbVertCells, toBytes(map));
+  }
+
+  /**
+   * Build a grid from map characters, row by row. The array is converted to element ordinals in place.
+   *
+   * @throws IllegalArgumentException for a character that is not a map element
+   */
+  MapGrid(int nbHorzCells, int nbVertCells, byte[] mapChars)
+  {
+    if (mapChars.length != nbHorzCells * nbVertCells)
+    {
+      throw new IllegalArgumentException("Map has " + mapChars.length + " cells, expected " +
+              nbHorzCells + "x" + nbVertCells);
+    }
+    this.nbHorzCells = nbHorzCells;
+    this.nbVertCells = nbVertCells;
+    this.cells = mapChars;
+    int targets = 0;
+    for (int i = 0; i < cells.length; i++)
     {
-      for (int i = 0; i < nbHorzCells; i++)
+      ElementType type = typeOf(cells[i]);
+      if (type == null)
       {
-        mapElements[i][k] = elementTypeMap.get(map.charAt(nbHorzCells * k + i));
-        if (mapElements[i][k] == MineMaze.ElementType.TARGET) {
-          numberOfTargets ++;
-        }
+        throw new IllegalArgumentException("Unknown map element '" + (char) (cells[i] & 0xff) + "' at " +
+                (i % nbHorzCells) + "-" + (i / nbHorzCells));
+      }
+      if (type == ElementType.TARGET)
+      {
+        targets++;
       }
+      cells[i] = (byte) type.ordinal();
     }
+    numberOfTargets = targets;
+  }
+
+  /**
+   * For grids that keep their cells elsewhere and override {@link #getCell(int, int)}
+   */
+  protected MapGrid(int nbHorzCells, int nbVertCells)
+  {
+    this.nbHorzCells = nbHorzCells;
+    this.nbVertCells = nbVertCells;
+    this.cells = null;
+    this.numberOfTargets = -1;
+  }
+
+  private static byte[] toBytes(String map)
+  {
+    byte[] bytes = new byte[map.length()];
+    for (int i = 0; i < bytes.length; i++)
+    {
+      char c = map.charAt(i);
+      bytes[i] = c < TYPE_BY_CHAR.length ? (byte) c : (byte) '?';
+    }
+    return bytes;
+  }
+
+  /**
+   * @return the element drawn with the given map character, or null if there is none
+   */
+  static ElementType typeOf(byte mapChar)
+  {
+    return mapChar >= 0 ? TYPE_BY_CHAR[mapChar] : null;
   }
 
   public int getNbHorzCells()
@@ -52,10 +131,100 @@ public class MapGrid
     return nbVertCells;
   }
 
-  public int getNumberOfTargets() { return numberOfTargets; }
+  public int getNumberOfTargets()
+  {
+    if (numberOfTargets < 0)
+    {
+      int targets = 0;
+      for (int y = 0; y < nbVertCells; y++)
+      {
+        for (int x = 0; x < nbHorzCells; x++)
+        {
+          if (getCell(x, y) == ElementType.TARGET)
+          {
+            targets++;
+          }
+        }
+      }
+      numberOfTargets = targets;
+    }
+    return numberOfTargets;
+  }
 
-  public MineMaze.ElementType getCell(Location location)
+  public ElementType getCell(Location location)
   {
-    return mapElements[location.x][location.y];
+    return getCell(location.x, location.y);
+  }
+
+  public ElementType getCell(int x, int y)
+  {
+    return TYPES[cells[y * nbHorzCells + x]];
+  }
+
+  /**
+   * @return the part of the map that never changes in a game, interned so that grids with the same map share it
+   */
+  public StaticMap getStaticMap()
+  {
+    StaticMap map = staticMap;
+    if (map == null)
+    {
+      map = StaticMap.of(this);
+      staticMap = map;
+    }
+    return map;
+  }
+
+  /**
+   * @return what the static layer of this map is interned by; must not read the whole map when it is large
+   */
+  StaticMap.Key getStaticMapKey()
+  {
+    if (cells != null)
+    {
+      return StaticMap.Key.ofCells(nbHorzCells, nbVertCells, cells);
+    }
+    byte[] row = new byte[nbHorzCells];
+    byte[] all = new byte[Math.multiplyExact(nbHorzCells, nbVertCells)];
+    for (int y = 0; y < nbVertCells; y++)
+    {
+      readRow(y, row);
+      System.arraycopy(row, 0, all, y * nbHorzCells, nbHorzCells);
+    }
+    return StaticMap.Key.ofCells(nbHorzCells, nbVertCells, all);
+  }
+
+  /**
+   * Store the element type ordinals of one row of the map
+   *
+   * @param ordinals room for the width of the map
+   */
+  void readRow(int y, byte[] ordinals)
+  {
+    if (cells != null)
+    {
+      System.arraycopy(cells, y * nbHorzCells, ordinals, 0, nbHorzCells);
+      return;
+    }
+    for (int x = 0; x < nbHorzCells; x++)
+    {
+      ordinals[x] = (byte) getCell(x, y).ordinal();
+    }
+  }
+
+  /**
+   * @return the map characters row by row, as a map file stores them
+   */
+  byte[] toMapChars()
+  {
+    byte[] mapChars = new byte[Math.multiplyExact(nbHorzCells, nbVertCells)];
+    for (int y = 0; y < nbVertCells; y++)
+    {
+      for (int x = 0; x < nbHorzCells; x++)
+      {
+        mapChars[y * nbHorzCells + x] = (byte) getCell(x, y).getMapElement();
+      }
+    }
+    return mapChars;
   }
 }
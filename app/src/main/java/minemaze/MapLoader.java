@@ -0,0 +1,161 @@
+package minemaze;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Reads maps from files named by the {@code map.file} property.
+ * <p>
+ * A text map draws one row per line with the characters of {@link ElementType#getMapElement()}; shorter
+ * lines are padded with outside cells. A binary map is {@code "MMAP"}, the width and the height as 4-byte
+ * big-endian ints, then the same characters row by row without line breaks. Both are checked in the single
+ * pass that converts them to cells.
+ * <p>
+ * Usage: {@code MapLoader <text map> <binary map>} converts a text map to a binary one.
+ */
+public class MapLoader {
+    public static final String MAP_FILE_PROPERTY = "map.file";
+    // Set to true to page a binary map file in tiles with ChunkedMapGrid instead of loading it whole
+    public static final String CHUNKED_PROPERTY = "map.chunked";
+    static final byte[] MAGIC = {'M', 'M', 'A', 'P'};
+    private static final int HEADER_SIZE = MAGIC.length + 8;
+
+    public static void main(String[] args) throws IOException {
+        MapGrid grid = load(Paths.get(args[0]));
+        try (OutputStream output = Files.newOutputStream(Paths.get(args[1]))) {
+            writeBinary(grid, output);
+        }
+    }
+
+    /**
+     * The map of a game: the file named by map.file, looked up on the file system and then on the classpath,
+     * or the built-in map when the property is not set
+     */
+    public static MapGrid fromProperties(Properties properties) throws IOException {
+        return fromProperties(properties, null);
+    }
+
+    /**
+     * Like {@link #fromProperties(Properties)}, but a relative map.file is first looked up next to the
+     * properties file in the given directory
+     */
+    public static MapGrid fromProperties(Properties properties, Path propertiesDirectory) throws IOException {
+        String mapFile = properties.getProperty(MAP_FILE_PROPERTY);
+        if (mapFile == null || mapFile.isEmpty()) {
+            return new MapGrid();
+        }
+        Path path = Paths.get(mapFile);
+        if (propertiesDirectory != null && !path.isAbsolute() && Files.exists(propertiesDirectory.resolve(path))) {
+            path = propertiesDirectory.resolve(path);
+        }
+        if (Files.exists(path)) {
+            boolean isChunked = Boolean.parseBoolean(properties.getProperty(CHUNKED_PROPERTY));
+            return isChunked ? ChunkedMapGrid.open(path) : load(path);
+        }
+        try (InputStream input = MapLoader.class.getClassLoader().getResourceAsStream(mapFile)) {
+            if (input == null) {
+                throw new IOException("Map file not found: " + mapFile);
+            }
+            return parse(input.readAllBytes(), mapFile);
+        }
+    }
+
+    public static MapGrid load(Path mapFile) throws IOException {
+        return parse(Files.readAllBytes(mapFile), mapFile.toString());
+    }
+
+    /**
+     * Parse a text or binary map
+     *
+     * @throws IllegalArgumentException when the map is malformed
+     */
+    static MapGrid parse(byte[] bytes, String name) {
+        try {
+            if (bytes.length >= HEADER_SIZE && Arrays.equals(Arrays.copyOf(bytes, MAGIC.length), MAGIC)) {
+                return parseBinary(bytes);
+            }
+            return parseText(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static MapGrid parseBinary(byte[] bytes) {
+        ByteBuffer header = ByteBuffer.wrap(bytes, MAGIC.length, 8);
+        int width = header.getInt();
+        int height = header.getInt();
+        if (width <= 0 || height <= 0 || (long) width * height != bytes.length - HEADER_SIZE) {
+            throw new IllegalArgumentException("Binary map of " + width + "x" + height + " has " +
+                    (bytes.length - HEADER_SIZE) + " cells");
+        }
+        return new MapGrid(width, height, Arrays.copyOfRange(bytes, HEADER_SIZE, bytes.length));
+    }
+
+    private static MapGrid parseText(byte[] bytes) {
+        // Measure the rows, ignoring a trailing line break and carriage returns
+        int width = 0;
+        int height = 0;
+        int lineLength = 0;
+        for (byte b : bytes) {
+            if (b == '\n') {
+                width = Math.max(width, lineLength);
+                height++;
+                lineLength = 0;
+            } else if (b != '\r') {
+                lineLength++;
+            }
+        }
+        if (lineLength > 0) {
+            width = Math.max(width, lineLength);
+            height++;
+        }
+        if (width == 0) {
+            throw new IllegalArgumentException("Empty map");
+        }
+
+        byte[] mapChars = new byte[Math.multiplyExact(width, height)];
+        Arrays.fill(mapChars, (byte) ElementType.OUTSIDE.getMapElement());
+        int row = 0;
+        int column = 0;
+        for (byte b : bytes) {
+            if (b == '\n') {
+                row++;
+                column = 0;
+            } else if (b != '\r') {
+                mapChars[row * width + column++] = b;
+            }
+        }
+        return new MapGrid(width, height, mapChars);
+    }
+
+    public static void writeBinary(MapGrid grid, OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(output);
+        data.write(MAGIC);
+        data.writeInt(grid.getNbHorzCells());
+        data.writeInt(grid.getNbVertCells());
+        data.write(grid.toMapChars());
+        data.flush();
+    }
+
+    /**
+     * @return the map as text, one line per row
+     */
+    public static String toText(MapGrid grid) {
+        byte[] mapChars = grid.toMapChars();
+        ByteArrayOutputStream text = new ByteArrayOutputStream(mapChars.length + grid.getNbVertCells());
+        for (int y = 0; y < grid.getNbVertCells(); y++) {
+            text.write(mapChars, y * grid.getNbHorzCells(), grid.getNbHorzCells());
+            text.write('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package minemaze;
+
+/**
+ * Keeps the whole log in memory, the way the log was always built. Suitable for tests and short games.
+ */
+public class MemoryLogSink implements GameLogSink {
+    private final StringBuilder logResult = new StringBuilder();
+
+    @Override
+    public void writeLine(CharSequence line) {
+        logResult.append(line).append('\n');
+    }
+
+    @Override
+    public void writeOutcome(String outcome) {
+        logResult.append(outcome);
+    }
+
+    public String getLogResult() {
+        return logResult.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getLogResult();
+    }
+}
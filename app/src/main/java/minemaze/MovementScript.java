@@ -0,0 +1,83 @@
+package minemaze;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * The steps of an auto-mode movement script, read one per tick.
+ * <p>
+ * A script is written as {@code pusher.movements} is: steps separated by ';', each either a cell
+ * {@code x-y} to move to, {@code Bomb}, or nothing to wait a tick. Whitespace is ignored and empty steps at
+ * the end are dropped.
+ */
+public interface MovementScript {
+    int END = -1;
+    int WAIT = 0;
+    int MOVE = 1;
+    int BOMB = 2;
+
+    /**
+     * Suffix of the property naming a file to stream a script from, e.g. pusher.movements.file
+     */
+    String FILE_SUFFIX = ".file";
+
+    /**
+     * Advance to the next step
+     *
+     * @return its opcode, or {@link #END} once the script has no more steps
+     */
+    int next();
+
+    /**
+     * @return the x of the last {@link #MOVE} step
+     */
+    int getX();
+
+    /**
+     * @return the y of the last {@link #MOVE} step
+     */
+    int getY();
+
+    /**
+     * @return where the script is, to go back to with {@link #seek(int)}
+     * @throws UnsupportedOperationException when the script cannot go back
+     */
+    default int getPosition() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot go back");
+    }
+
+    /**
+     * Go back, or forward, to a position returned by {@link #getPosition()}
+     *
+     * @throws UnsupportedOperationException when the script cannot go back
+     */
+    default void seek(int position) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot go back");
+    }
+
+    /**
+     * Load the script of the given property, streamed from the file named by the property with
+     * {@link #FILE_SUFFIX} when there is one, and compiled from the property itself otherwise
+     *
+     * @throws IllegalArgumentException for a step that is not x-y, Bomb or empty
+     */
+    static MovementScript fromProperties(Properties properties, String property) {
+        String scriptFile = properties.getProperty(property + FILE_SUFFIX);
+        if (scriptFile == null || scriptFile.isEmpty()) {
+            return CompiledScript.compile(properties.getProperty(property, ""), property);
+        }
+        try {
+            return StreamingScript.open(Paths.get(scriptFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Release the source of the script, if it holds one
+     */
+    default void close() {
+    }
+}
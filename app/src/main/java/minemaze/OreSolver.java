@@ -0,0 +1,442 @@
+package minemaze;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Searches for a pusher script that collects {@code ores.winning} ores.
+ * <p>
+ * The search follows the engine's push rules: the pusher cannot enter border, rock, hard rock or bomber
+ * cells, an ore can only be pushed into a free cell, and an ore pushed onto a target is collected and
+ * leaves the board. The bomber is assumed to stay where it is.
+ * <p>
+ * States are explored push by push, breadth first, so the script uses as few pushes as possible. A state is
+ * the set of ores on the board plus the pusher's reachable area, packed into a few longs (the area is
+ * represented by its smallest cell). Each level of the search is expanded on a fork/join pool and then
+ * deduplicated in order against a hashed visited set, so the result does not depend on the thread count.
+ * Ores stuck on cells from which no target can be reached are counted as lost, and states that can no
+ * longer collect enough ores are pruned.
+ * <p>
+ * Usage: {@code OreSolver <properties file> [--threads N]}
+ */
+public class OreSolver {
+    public static final int DEFAULT_MAX_STATES = 5_000_000;
+
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private static final class Node {
+        private final int pusher;
+        private final int[] ores;
+        private final int collected;
+        private final Node parent;
+        // Cell the pusher pushed from; the push itself went into the cell this node's pusher is on
+        private final int pushFrom;
+
+        Node(int pusher, int[] ores, int collected, Node parent, int pushFrom) {
+            this.pusher = pusher;
+            this.ores = ores;
+            this.collected = collected;
+            this.parent = parent;
+            this.pushFrom = pushFrom;
+        }
+    }
+
+    private static final class StateKey {
+        private final long[] words;
+        private final int hash;
+
+        StateKey(long[] words) {
+            this.words = words;
+            this.hash = Arrays.hashCode(words);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey && Arrays.equals(words, ((StateKey) o).words);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Per-thread buffers for the flood fills, so expanding a state does not allocate them
+     */
+    private final class Scratch {
+        private final int[] queue = new int[cells];
+        private final int[] marks = new int[cells];
+        private final int[] from = new int[cells];
+        private final boolean[] ore = new boolean[cells];
+        private int mark;
+    }
+
+    private final int width;
+    private final int height;
+    private final int cells;
+    private final int bitsPerCell;
+    private final boolean[] passable;
+    private final boolean[] target;
+    private final boolean[] live;
+    private final int startPusher;
+    private final int[] startOres;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxStates = DEFAULT_MAX_STATES;
+    private int statesVisited;
+
+    /**
+     * All locations are given as {x0, y0, x1, y1, ...}
+     */
+    public OreSolver(MapGrid grid, int pusherX, int pusherY, int[] ores, int[] targets,
+                     int[] rocks, int[] hardRocks, int[] bombers) {
+        width = grid.getNbHorzCells();
+        height = grid.getNbVertCells();
+        cells = width * height;
+        bitsPerCell = 32 - Integer.numberOfLeadingZeros(cells);
+        passable = new boolean[cells];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                passable[y * width + x] = grid.getCell(x, y) != ElementType.BORDER;
+            }
+        }
+        block(rocks);
+        block(hardRocks);
+        block(bombers);
+        target = new boolean[cells];
+        for (int i = 0; i + 1 < targets.length; i += 2) {
+            if (isInside(targets[i], targets[i + 1])) {
+                target[targets[i + 1] * width + targets[i]] = true;
+            }
+        }
+        live = findLiveCells();
+        startPusher = pusherY * width + pusherX;
+        int[] oreCells = new int[ores.length / 2];
+        for (int i = 0; i < oreCells.length; i++) {
+            oreCells[i] = ores[2 * i + 1] * width + ores[2 * i];
+        }
+        Arrays.sort(oreCells);
+        startOres = oreCells;
+    }
+
+    /**
+     * Take the map, the first pusher and all obstacles from a freshly created engine
+     */
+    public static OreSolver forEngine(GameEngine engine) {
+        ActorLayer pushers = engine.getLayer(ElementType.PUSHER);
+        return new OreSolver(engine.getGrid(), pushers.getX(0), pushers.getY(0),
+                visibleLocations(engine.getLayer(ElementType.ORE)),
+                visibleLocations(engine.getLayer(ElementType.TARGET)),
+                visibleLocations(engine.getLayer(ElementType.BOULDER)),
+                visibleLocations(engine.getLayer(ElementType.HARD_ROCK)),
+                visibleLocations(engine.getLayer(ElementType.BOMBER)));
+    }
+
+    private static int[] visibleLocations(ActorLayer layer) {
+        int[] locations = new int[layer.size() * 2];
+        int count = 0;
+        for (int i = 0; i < layer.size(); i++) {
+            if (layer.isVisible(i)) {
+                locations[count++] = layer.getX(i);
+                locations[count++] = layer.getY(i);
+            }
+        }
+        return Arrays.copyOf(locations, count);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path scenario = Paths.get(args[0]);
+        Properties properties = PropertiesLoader.loadPropertiesFile(scenario);
+        OreSolver solver = forEngine(new GameEngine(properties,
+                MapLoader.fromProperties(properties, scenario.getParent())));
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                solver.setThreads(Integer.parseInt(args[++i]));
+            }
+        }
+        String movements = solver.solve(Integer.parseInt(properties.getProperty("ores.winning")));
+        if (movements == null) {
+            System.out.println("No solution found after " + solver.getStatesVisited() + " states");
+        } else {
+            System.out.println("pusher.movements=" + movements);
+        }
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setMaxStates(int maxStates) {
+        this.maxStates = maxStates;
+    }
+
+    public int getStatesVisited() {
+        return statesVisited;
+    }
+
+    private void block(int[] locations) {
+        for (int i = 0; i + 1 < locations.length; i += 2) {
+            if (isInside(locations[i], locations[i + 1])) {
+                passable[locations[i + 1] * width + locations[i]] = false;
+            }
+        }
+    }
+
+    private boolean isInside(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private int neighbour(int cell, int direction) {
+        int x = cell % width + DX[direction];
+        int y = cell / width + DY[direction];
+        return isInside(x, y) ? y * width + x : -1;
+    }
+
+    /**
+     * Cells from which an ore can still be pushed onto a target, ignoring other ores. Found by pulling
+     * ores backwards from every target: an ore can reach a live cell from the cell before it when the
+     * pusher has room behind that cell.
+     */
+    private boolean[] findLiveCells() {
+        boolean[] isLive = new boolean[cells];
+        int[] queue = new int[cells];
+        int tail = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (target[cell] && passable[cell]) {
+                isLive[cell] = true;
+                queue[tail++] = cell;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int cell = queue[head];
+            for (int d = 0; d < DX.length; d++) {
+                // Ore was at 'before' and got pushed in direction d by a pusher standing at 'pusher'
+                int before = neighbour(cell, d ^ 1);
+                int pusher = before < 0 ? -1 : neighbour(before, d ^ 1);
+                if (pusher >= 0 && passable[before] && passable[pusher] && !isLive[before]) {
+                    isLive[before] = true;
+                    queue[tail++] = before;
+                }
+            }
+        }
+        return isLive;
+    }
+
+    /**
+     * Search for a script that collects the given number of ores
+     *
+     * @return the script in pusher.movements format, or null if there is none within the state limit
+     */
+    public String solve(int oresWinning) {
+        statesVisited = 0;
+        if (oresWinning <= 0) {
+            return "";
+        }
+        if (!passable[startPusher] || liveOres(startOres) < oresWinning) {
+            return null;
+        }
+
+        Set<StateKey> visited = new HashSet<>();
+        List<Node> level = new ArrayList<>();
+        level.add(new Node(startPusher, startOres, 0, null, -1));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            while (!level.isEmpty()) {
+                final List<Node> current = level;
+                StateKey[] keys = new StateKey[current.size()];
+                pool.submit(() -> IntStream.range(0, current.size()).parallel()
+                        .forEach(i -> keys[i] = key(current.get(i)))).get();
+
+                List<Node> fresh = new ArrayList<>();
+                for (int i = 0; i < keys.length; i++) {
+                    if (visited.add(keys[i])) {
+                        fresh.add(current.get(i));
+                    }
+                }
+                statesVisited += fresh.size();
+                if (visited.size() > maxStates) {
+                    return null;
+                }
+
+                List<List<Node>> children = pool.submit(() -> IntStream.range(0, fresh.size()).parallel()
+                        .mapToObj(i -> expand(fresh.get(i), oresWinning))
+                        .collect(Collectors.toList())).get();
+
+                level = new ArrayList<>();
+                for (List<Node> nodes : children) {
+                    for (Node child : nodes) {
+                        if (child.collected >= oresWinning) {
+                            return toMovements(child);
+                        }
+                        level.add(child);
+                    }
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private int liveOres(int[] ores) {
+        int count = 0;
+        for (int ore : ores) {
+            if (live[ore] && passable[ore]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Flood fill the cells the pusher can walk to without pushing anything
+     *
+     * @return the scratch buffers, where reachable cells carry the current mark
+     */
+    private Scratch reach(int pusher, int[] ores) {
+        Scratch s = scratch.get();
+        for (int ore : ores) {
+            s.ore[ore] = true;
+        }
+        s.mark++;
+        int tail = 0;
+        s.marks[pusher] = s.mark;
+        s.from[pusher] = -1;
+        s.queue[tail++] = pusher;
+        for (int head = 0; head < tail; head++) {
+            int cell = s.queue[head];
+            for (int d = 0; d < DX.length; d++) {
+                int next = neighbour(cell, d);
+                if (next >= 0 && passable[next] && !s.ore[next] && s.marks[next] != s.mark) {
+                    s.marks[next] = s.mark;
+                    s.from[next] = cell;
+                    s.queue[tail++] = next;
+                }
+            }
+        }
+        for (int ore : ores) {
+            s.ore[ore] = false;
+        }
+        return s;
+    }
+
+    /**
+     * Pack the ores and the smallest cell of the pusher's reachable area
+     */
+    private StateKey key(Node node) {
+        Scratch s = reach(node.pusher, node.ores);
+        int area = node.pusher;
+        for (int cell = 0; cell < area; cell++) {
+            if (s.marks[cell] == s.mark) {
+                area = cell;
+                break;
+            }
+        }
+
+        long[] words = new long[(bitsPerCell * (node.ores.length + 1) + 63) >>> 6];
+        int bit = 0;
+        bit = pack(words, bit, area);
+        for (int ore : node.ores) {
+            bit = pack(words, bit, ore);
+        }
+        return new StateKey(words);
+    }
+
+    private int pack(long[] words, int bit, int value) {
+        words[bit >>> 6] |= (long) value << bit;
+        int spill = (bit & 63) + bitsPerCell - 64;
+        if (spill > 0) {
+            words[(bit >>> 6) + 1] |= (long) value >>> (bitsPerCell - spill);
+        }
+        return bit + bitsPerCell;
+    }
+
+    private List<Node> expand(Node node, int oresWinning) {
+        Scratch s = reach(node.pusher, node.ores);
+        List<Node> children = new ArrayList<>();
+        for (int i = 0; i < node.ores.length; i++) {
+            int ore = node.ores[i];
+            if (!passable[ore]) {
+                continue; // Ores under a rock or the bomber can never be pushed
+            }
+            for (int d = 0; d < DX.length; d++) {
+                int behind = neighbour(ore, d ^ 1);
+                int destination = neighbour(ore, d);
+                if (behind < 0 || destination < 0 || s.marks[behind] != s.mark || !passable[destination]
+                        || Arrays.binarySearch(node.ores, destination) >= 0) {
+                    continue;
+                }
+
+                boolean isCollected = target[destination];
+                int[] ores = new int[isCollected ? node.ores.length - 1 : node.ores.length];
+                int count = 0;
+                for (int other : node.ores) {
+                    if (other != ore) {
+                        ores[count++] = other;
+                    }
+                }
+                if (!isCollected) {
+                    ores[count] = destination;
+                }
+                Arrays.sort(ores);
+                int collected = node.collected + (isCollected ? 1 : 0);
+                if (collected < oresWinning && collected + liveOres(ores) < oresWinning) {
+                    continue; // Not enough ores left that can still reach a target
+                }
+                children.add(new Node(ore, ores, collected, node, behind));
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Turn the chain of pushes into single-cell waypoints, walking between pushes around the ores
+     */
+    private String toMovements(Node goal) {
+        List<Node> pushes = new ArrayList<>();
+        for (Node node = goal; node.parent != null; node = node.parent) {
+            pushes.add(node);
+        }
+
+        StringBuilder movements = new StringBuilder();
+        for (int i = pushes.size() - 1; i >= 0; i--) {
+            Node push = pushes.get(i);
+            Scratch s = reach(push.parent.pusher, push.parent.ores);
+            int[] walk = new int[cells];
+            int length = 0;
+            for (int cell = push.pushFrom; cell != push.parent.pusher; cell = s.from[cell]) {
+                walk[length++] = cell;
+            }
+            for (int step = length - 1; step >= 0; step--) {
+                appendCell(movements, walk[step]);
+            }
+            appendCell(movements, push.pusher);
+        }
+        return movements.toString();
+    }
+
+    private void appendCell(StringBuilder movements, int cell) {
+        if (movements.length() > 0) {
+            movements.append(';');
+        }
+        movements.append(cell % width).append('-').append(cell / width);
+    }
+}
@@ -0,0 +1,229 @@
+package minemaze;
+
+import java.util.Arrays;
+
+/**
+ * Shortest paths for the pusher over the grid.
+ * <p>
+ * For every target a breadth-first distance field is computed once over the cells the pusher may enter
+ * (the same rules as {@code canMove}: no border, rock, hard rock or bomber) and kept in a small LRU cache.
+ * A field stays valid until one of the blocking layers changes a cell, so repeated requests for the same
+ * target only walk the path. The cache is a few parallel arrays scanned linearly and an evicted field's
+ * array is refilled for the new target, so planning allocates nothing once the cache is full. Which
+ * neighbours are off the grid or border comes from the shared {@link StaticMap}; only the blocking layers
+ * are checked per game.
+ */
+class PathPlanner {
+    public static final int UNREACHABLE = -1;
+    public static final int DEFAULT_CACHE_SIZE = 8;
+
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final int width;
+    private final int height;
+    private final StaticMap map;
+    private final ActorLayer[] blockers;
+    // Cache slots: target cell (-1 when empty), blocker stamp, last use and distances of each field
+    private final int[] cachedTargets;
+    private final long[] cachedStamps;
+    private final long[] cachedUses;
+    private final int[][] cachedFields;
+    private long uses;
+    // Allocated by the first field computed, so games that never plan do not pay for it
+    private int[] queue;
+    private int[] path = new int[16];
+    private int fieldsComputed;
+
+    PathPlanner(StaticMap map, ActorLayer... blockers) {
+        this(map, DEFAULT_CACHE_SIZE, blockers);
+    }
+
+    PathPlanner(StaticMap map, int cacheSize, ActorLayer... blockers) {
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.map = map;
+        this.blockers = blockers;
+        cachedTargets = new int[cacheSize];
+        Arrays.fill(cachedTargets, -1);
+        cachedStamps = new long[cacheSize];
+        cachedUses = new long[cacheSize];
+        cachedFields = new int[cacheSize][];
+    }
+
+    /**
+     * Sum of the versions of the blocking layers; it changes whenever a blocking actor changes cell
+     */
+    private long currentStamp() {
+        long stamp = 0;
+        for (ActorLayer blocker : blockers) {
+            stamp += blocker.getVersion();
+        }
+        return stamp;
+    }
+
+    public boolean isPassable(int x, int y) {
+        return !map.isBorder(x, y) && !isBlocked(x, y);
+    }
+
+    /**
+     * @return whether a blocking actor is on a cell of the grid
+     */
+    private boolean isBlocked(int x, int y) {
+        for (ActorLayer blocker : blockers) {
+            if (blocker.isOccupied(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Plan the shortest path from one cell to another. When several shortest paths exist, horizontal
+     * moves toward the target are preferred, so on open ground the path is the same straight
+     * horizontal-then-vertical line the pusher always followed. The start cell may itself be blocked, as when
+     * the pushers are blockers and one of them plans.
+     *
+     * @return the number of steps, stored as packed cells ({@code y * width + x}) in {@link #getPath()},
+     * or {@link #UNREACHABLE}
+     */
+    public int plan(int fromX, int fromY, int toX, int toY) {
+        if (!isPassable(toX, toY) || !map.isInside(fromX, fromY)) {
+            return UNREACHABLE;
+        }
+        int[] distances = distanceField(toX, toY);
+        int distance = distances[fromY * width + fromX];
+        if (distance == UNREACHABLE && isBlocked(fromX, fromY)) {
+            distance = startDistance(distances, fromX, fromY);
+        }
+        if (distance == UNREACHABLE) {
+            return UNREACHABLE;
+        }
+
+        if (path.length < distance) {
+            path = new int[Math.max(distance, path.length * 2)];
+        }
+        int x = fromX;
+        int y = fromY;
+        for (int step = 0; step < distance; step++) {
+            int next = nextStep(distances, x, y, distance - step - 1, toX, toY);
+            x = next % width;
+            y = next / width;
+            path[step] = next;
+        }
+        return distance;
+    }
+
+    public int[] getPath() {
+        return path;
+    }
+
+    /**
+     * Pick the neighbour one step closer to the target: horizontal toward it first, then vertical toward it,
+     * then the remaining directions
+     */
+    private int nextStep(int[] distances, int x, int y, int wanted, int toX, int toY) {
+        int dx = Integer.signum(toX - x);
+        int dy = Integer.signum(toY - y);
+        if (dx != 0 && distanceAt(distances, x + dx, y) == wanted) return y * width + x + dx;
+        if (dy != 0 && distanceAt(distances, x, y + dy) == wanted) return (y + dy) * width + x;
+        for (int d = 0; d < DX.length; d++) {
+            if (distanceAt(distances, x + DX[d], y + DY[d]) == wanted) {
+                return (y + DY[d]) * width + x + DX[d];
+            }
+        }
+        throw new IllegalStateException("Broken distance field at " + x + "-" + y);
+    }
+
+    /**
+     * The distance from a blocked start cell, which the field leaves out: one more than its nearest neighbour
+     */
+    private int startDistance(int[] distances, int x, int y) {
+        int distance = UNREACHABLE;
+        for (int d = 0; d < DX.length; d++) {
+            int neighbour = distanceAt(distances, x + DX[d], y + DY[d]);
+            if (neighbour != UNREACHABLE && (distance == UNREACHABLE || neighbour + 1 < distance)) {
+                distance = neighbour + 1;
+            }
+        }
+        return distance;
+    }
+
+    private int distanceAt(int[] distances, int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return UNREACHABLE;
+        }
+        return distances[y * width + x];
+    }
+
+    /**
+     * Distances to the target from every cell, from the cache when still valid
+     */
+    int[] distanceField(int toX, int toY) {
+        long stamp = currentStamp();
+        int target = toY * width + toX;
+        int slot = slotOf(target);
+        cachedUses[slot] = ++uses;
+        if (cachedTargets[slot] == target && cachedStamps[slot] == stamp) {
+            return cachedFields[slot];
+        }
+        if (cachedFields[slot] == null) {
+            cachedFields[slot] = new int[width * height];
+        }
+        cachedTargets[slot] = target;
+        computeField(cachedFields[slot], toX, toY);
+        cachedStamps[slot] = stamp;
+        fieldsComputed++;
+        return cachedFields[slot];
+    }
+
+    /**
+     * @return the slot caching the given target, else an empty slot, else the least recently used one
+     */
+    private int slotOf(int target) {
+        int victim = 0;
+        for (int slot = 0; slot < cachedTargets.length; slot++) {
+            if (cachedTargets[slot] == target) {
+                return slot;
+            }
+            if (cachedUses[slot] < cachedUses[victim]) {
+                victim = slot;
+            }
+        }
+        return victim;
+    }
+
+    private void computeField(int[] distances, int toX, int toY) {
+        Arrays.fill(distances, UNREACHABLE);
+        if (queue == null) {
+            queue = new int[width * height];
+        }
+        int head = 0;
+        int tail = 0;
+        distances[toY * width + toX] = 0;
+        queue[tail++] = toY * width + toX;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % width;
+            int y = cell / width;
+            // Only neighbours on the grid and not border are in the mask, so no bounds checks are needed
+            int neighbours = map.getNeighbours(x, y);
+            for (int d = 0; neighbours != 0; d++, neighbours >>>= 1) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                int next = ny * width + nx;
+                if ((neighbours & 1) != 0 && distances[next] == UNREACHABLE && !isBlocked(nx, ny)) {
+                    distances[next] = distances[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return how many distance fields had to be computed rather than taken from the cache
+     */
+    public int getFieldsComputed() {
+        return fieldsComputed;
+    }
+}
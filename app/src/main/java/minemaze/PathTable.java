@@ -0,0 +1,168 @@
+package minemaze;
+
+/**
+ * The planned paths of a number of agents and how far each has got along its own, as packed cells
+ * ({@code y * width + x}).
+ * <p>
+ * All paths live in one copy-on-write array, each in a region of its own. A path that outgrows its region
+ * moves to a region twice as large at the end of the array, so a region is only ever grown and the array
+ * holds at most twice the longest paths seen. Like the actor layers, a {@link State} taken with
+ * {@link #freeze()} costs O(1) and shares the arrays until the paths next change.
+ */
+final class PathTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The paths at one moment; never changes
+     */
+    static final class State {
+        private final CowIntArray.Frozen steps;
+        private final CowIntArray.Frozen starts;
+        private final CowIntArray.Frozen capacities;
+        private final CowIntArray.Frozen lengths;
+        private final CowIntArray.Frozen indices;
+        private final int end;
+
+        private State(PathTable table) {
+            steps = table.steps.freeze();
+            starts = table.starts.freeze();
+            capacities = table.capacities.freeze();
+            lengths = table.lengths.freeze();
+            indices = table.indices.freeze();
+            end = table.end;
+        }
+    }
+
+    private final int size;
+    private final CowIntArray steps;
+    // Per path: where its region starts, how many steps it holds, the steps planned and the steps taken
+    private final CowIntArray starts;
+    private final CowIntArray capacities;
+    private final CowIntArray lengths;
+    private final CowIntArray indices;
+    // The end of the last region
+    private int end;
+
+    PathTable(int size) {
+        this.size = size;
+        starts = new CowIntArray(size);
+        capacities = new CowIntArray(size, INITIAL_CAPACITY);
+        lengths = new CowIntArray(size);
+        indices = new CowIntArray(size);
+        for (int path = 0; path < size; path++) {
+            starts.set(path, path * INITIAL_CAPACITY);
+        }
+        end = size * INITIAL_CAPACITY;
+        steps = new CowIntArray(end);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of steps planned
+     */
+    public int length(int path) {
+        return lengths.get(path);
+    }
+
+    /**
+     * @return the number of steps taken
+     */
+    public int index(int path) {
+        return indices.get(path);
+    }
+
+    public boolean isDone(int path) {
+        return indices.get(path) >= lengths.get(path);
+    }
+
+    public int step(int path, int index) {
+        return steps.get(starts.get(path) + index);
+    }
+
+    /**
+     * @return the step to take next; only valid while the path is not done
+     */
+    public int nextStep(int path) {
+        return step(path, indices.get(path));
+    }
+
+    /**
+     * @return the last cell of the path; only valid when it has steps
+     */
+    public int lastStep(int path) {
+        return step(path, lengths.get(path) - 1);
+    }
+
+    public void advance(int path) {
+        indices.set(path, indices.get(path) + 1);
+    }
+
+    public void clear(int path) {
+        lengths.set(path, 0);
+        indices.set(path, 0);
+    }
+
+    /**
+     * Replace a path with the first given number of cells of another
+     */
+    public void set(int path, int[] cells, int count) {
+        clear(path);
+        reserve(path, count);
+        int start = starts.get(path);
+        for (int i = 0; i < count; i++) {
+            steps.set(start + i, cells[i]);
+        }
+        lengths.set(path, count);
+    }
+
+    /**
+     * Append a step to a path
+     */
+    public void add(int path, int cell) {
+        int length = lengths.get(path);
+        reserve(path, length + 1);
+        steps.set(starts.get(path) + length, cell);
+        lengths.set(path, length + 1);
+    }
+
+    /**
+     * Move a path to a larger region when it cannot hold the given number of steps, keeping its steps
+     */
+    private void reserve(int path, int count) {
+        int capacity = capacities.get(path);
+        if (count <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(count, capacity * 2);
+        int oldStart = starts.get(path);
+        steps.grow(end + newCapacity);
+        for (int i = 0; i < lengths.get(path); i++) {
+            steps.set(end + i, steps.get(oldStart + i));
+        }
+        starts.set(path, end);
+        capacities.set(path, newCapacity);
+        end += newCapacity;
+    }
+
+    /**
+     * Capture the paths in O(1)
+     */
+    State freeze() {
+        return new State(this);
+    }
+
+    /**
+     * Go back to captured paths of a table of the same size
+     */
+    void restore(State state) {
+        steps.restore(state.steps);
+        starts.restore(state.starts);
+        capacities.restore(state.capacities);
+        lengths.restore(state.lengths);
+        indices.restore(state.indices);
+        end = state.end;
+    }
+}
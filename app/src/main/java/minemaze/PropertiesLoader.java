@@ -2,6 +2,8 @@ package minemaze;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Properties;
 
 public class PropertiesLoader {
@@ -19,4 +21,18 @@ public class PropertiesLoader {
         }
         return null;
     }
+
+    /**
+     * Load a properties file from the file system rather than the classpath
+     */
+    public static Properties loadPropertiesFile(Path propertiesFile) {
+        try (InputStream input = Files.newInputStream(propertiesFile)) {
+            Properties prop = new Properties();
+            prop.load(input);
+            return prop;
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,121 @@
+package minemaze;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs ticks on a fixed timestep of the monotonic clock, so the game keeps its designed speed.
+ * <p>
+ * Tick n is due one simulation period after tick n - 1 was due, not after it finished, so the time spent
+ * on a tick does not stretch the period. A tick that is already due runs at once: after a slow tick the
+ * following ones run back to back until the game has caught up. At most {@code maxCatchUpTicks} ticks
+ * are made up this way; beyond that the backlog is dropped and counted as skipped. Every tick that
+ * starts after its due time is counted as an overrun. Time is read and waited for through a
+ * {@link TimeSource}, the monotonic system clock unless another is given.
+ */
+public class RealTimeClock implements GameClock {
+    public static final String MAX_CATCH_UP_PROPERTY = "clock.maxCatchUpTicks";
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+
+    /**
+     * Where the clock reads the time and waits for it to pass
+     */
+    public interface TimeSource {
+        TimeSource SYSTEM = new TimeSource() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+
+            @Override
+            public void sleepNanos(long nanos) throws InterruptedException {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            }
+        };
+
+        long nanoTime();
+
+        void sleepNanos(long nanos) throws InterruptedException;
+    }
+
+    private final int maxCatchUpTicks;
+    private final TimeSource time;
+    private final long startNanos;
+    private long nextTickNanos;
+    private long ticks;
+    private long overruns;
+    private long skippedTicks;
+    private long maxLatenessNanos;
+
+    public RealTimeClock() {
+        this(DEFAULT_MAX_CATCH_UP_TICKS);
+    }
+
+    public RealTimeClock(int maxCatchUpTicks) {
+        this(maxCatchUpTicks, TimeSource.SYSTEM);
+    }
+
+    public RealTimeClock(int maxCatchUpTicks, TimeSource time) {
+        if (maxCatchUpTicks < 0) {
+            throw new IllegalArgumentException("maxCatchUpTicks must not be negative: " + maxCatchUpTicks);
+        }
+        this.maxCatchUpTicks = maxCatchUpTicks;
+        this.time = time;
+        startNanos = time.nanoTime();
+    }
+
+    @Override
+    public void awaitNextTick(int periodMillis) throws InterruptedException {
+        long period = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        long now = time.nanoTime();
+        if (ticks == 0) {
+            nextTickNanos = now + period;
+        }
+
+        long lateness = now - nextTickNanos;
+        if (lateness > 0) {
+            overruns++;
+            maxLatenessNanos = Math.max(maxLatenessNanos, lateness);
+            long behind = period > 0 ? lateness / period : 0;
+            if (behind > maxCatchUpTicks) {
+                skippedTicks += behind - maxCatchUpTicks;
+                nextTickNanos += (behind - maxCatchUpTicks) * period;
+            }
+        } else {
+            time.sleepNanos(-lateness);
+        }
+        nextTickNanos += period;
+        ticks++;
+    }
+
+    @Override
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(time.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return the number of ticks that started after they were due
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * @return the number of ticks dropped because the game fell further behind than the catch-up cap
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /**
+     * @return the most any tick started late, in milliseconds
+     */
+    public double getMaxLatenessMillis() {
+        return maxLatenessNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String getTimingReport() {
+        return String.format("%d ticks, %d overruns, %d skipped, max lateness %.2f ms",
+                ticks, overruns, skippedTicks, getMaxLatenessMillis());
+    }
+}
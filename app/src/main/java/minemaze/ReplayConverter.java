@@ -0,0 +1,38 @@
+package minemaze;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Turns a binary replay back into the text log, byte for byte as the engine would have written it.
+ * <p>
+ * Usage: {@code ReplayConverter <replay file> <log file>}
+ */
+public class ReplayConverter {
+    public static void main(String[] args) throws IOException {
+        try (InputStream input = Files.newInputStream(Paths.get(args[0]))) {
+            FileLogSink sink = new FileLogSink(Paths.get(args[1]));
+            convert(input, sink);
+            sink.close();
+        }
+    }
+
+    /**
+     * Write every tick line and the outcome of the replay to the sink
+     */
+    public static void convert(InputStream replay, GameLogSink sink) throws IOException {
+        try (ReplayDecoder decoder = new ReplayDecoder(replay)) {
+            StringBuilder line = new StringBuilder();
+            while (decoder.nextTick()) {
+                line.setLength(0);
+                decoder.appendLogLine(line);
+                sink.writeLine(line);
+            }
+            if (decoder.getOutcome() != null) {
+                sink.writeOutcome(decoder.getOutcome());
+            }
+        }
+    }
+}
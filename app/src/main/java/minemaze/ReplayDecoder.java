@@ -0,0 +1,177 @@
+package minemaze;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads a replay written by {@link ReplayEncoder} one tick at a time, rebuilding the actor layers as it goes.
+ */
+public class ReplayDecoder implements AutoCloseable {
+    private static final ElementType[] TYPES = ElementType.values();
+
+    private final DataInputStream input;
+    private final int nbHorzCells;
+    private final int nbVertCells;
+    private final ElementType[] cells;
+    private final ActorLayer[] layers = new ActorLayer[ElementType.values().length];
+    private int movementIndex;
+    private final boolean isHashed;
+    private long stateHash;
+    private String outcome;
+
+    public ReplayDecoder(InputStream input) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(input));
+        byte[] magic = new byte[ReplayFormat.MAGIC.length];
+        this.input.readFully(magic);
+        if (!Arrays.equals(magic, ReplayFormat.MAGIC)) {
+            throw new IOException("Not a MineMaze replay");
+        }
+        int version = ReplayFormat.readVarint(this.input);
+        if (version != ReplayFormat.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+
+        nbHorzCells = ReplayFormat.readVarint(this.input);
+        nbVertCells = ReplayFormat.readVarint(this.input);
+        int cellCount;
+        try {
+            cellCount = Math.multiplyExact(nbHorzCells, nbVertCells);
+        } catch (ArithmeticException e) {
+            throw new IOException("bad map size " + nbHorzCells + "x" + nbVertCells, e);
+        }
+        cells = new ElementType[cellCount];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = typeOf(this.input.readUnsignedByte());
+        }
+
+        for (ElementType type : TYPES) {
+            ActorLayer layer = new ActorLayer(type, nbHorzCells, nbVertCells);
+            int count = ReplayFormat.readVarint(this.input);
+            for (int i = 0; i < count; i++) {
+                int index = layer.add(ReplayFormat.readSignedVarint(this.input), ReplayFormat.readSignedVarint(this.input));
+                if (!this.input.readBoolean()) {
+                    layer.hide(index);
+                }
+            }
+            layers[type.ordinal()] = layer;
+        }
+        movementIndex = ReplayFormat.readSignedVarint(this.input);
+        isHashed = (ReplayFormat.readVarint(this.input) & ReplayFormat.HASHED) != 0;
+    }
+
+    private static ElementType typeOf(int ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= TYPES.length) {
+            throw new IOException("bad actor type " + ordinal + " in replay");
+        }
+        return TYPES[ordinal];
+    }
+
+    /**
+     * Apply the next tick
+     *
+     * @return false once the outcome or the end of the replay has been reached
+     */
+    public boolean nextTick() throws IOException {
+        if (outcome != null) {
+            return false;
+        }
+        int record;
+        try {
+            record = input.readUnsignedByte();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (record == ReplayFormat.OUTCOME_RECORD) {
+            byte[] bytes = new byte[ReplayFormat.readVarint(input)];
+            input.readFully(bytes);
+            outcome = new String(bytes, StandardCharsets.UTF_8);
+            return false;
+        }
+        if (record != ReplayFormat.TICK_RECORD) {
+            throw new IOException("Unknown replay record " + record);
+        }
+
+        movementIndex += ReplayFormat.readSignedVarint(input);
+        if (isHashed) {
+            stateHash = input.readLong();
+        }
+        int changedLayers = ReplayFormat.readVarint(input);
+        for (int l = 0; l < changedLayers; l++) {
+            ActorLayer layer = layers[typeOf(ReplayFormat.readVarint(input)).ordinal()];
+            int count = ReplayFormat.readVarint(input);
+            for (int c = 0; c < count; c++) {
+                applyChange(layer, ReplayFormat.readVarint(input));
+            }
+        }
+        return true;
+    }
+
+    private void applyChange(ActorLayer layer, int change) throws IOException {
+        int index = change >>> 2;
+        if ((change & 3) != ReplayFormat.ADD && index >= layer.size()) {
+            throw new IOException("Replay changes actor " + index + " of a layer of " + layer.size());
+        }
+        switch (change & 3) {
+            case ReplayFormat.MOVE:
+                int dx = ReplayFormat.readSignedVarint(input);
+                int dy = ReplayFormat.readSignedVarint(input);
+                layer.setLocation(index, layer.getX(index) + dx, layer.getY(index) + dy);
+                break;
+            case ReplayFormat.ADD:
+                if (index != layer.size()) {
+                    throw new IOException("Replay adds actor " + index + " to a layer of " + layer.size());
+                }
+                layer.add(ReplayFormat.readSignedVarint(input), ReplayFormat.readSignedVarint(input));
+                break;
+            case ReplayFormat.HIDE:
+                layer.hide(index);
+                break;
+            default:
+                layer.show(index);
+                break;
+        }
+    }
+
+    /**
+     * Append the text log line of the current tick, exactly as the engine wrote it
+     */
+    public void appendLogLine(StringBuilder line) {
+        GameEngine.appendLogLine(line, movementIndex, layers);
+        if (isHashed) {
+            GameEngine.appendHash(line, stateHash);
+        }
+    }
+
+    /**
+     * @return the outcome, or null until {@link #nextTick()} has reached it
+     */
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public int getNbHorzCells() {
+        return nbHorzCells;
+    }
+
+    public int getNbVertCells() {
+        return nbVertCells;
+    }
+
+    public ElementType getCell(int x, int y) {
+        return cells[y * nbHorzCells + x];
+    }
+
+    ActorLayer getLayer(ElementType type) {
+        return layers[type.ordinal()];
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
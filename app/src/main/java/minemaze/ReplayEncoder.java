@@ -0,0 +1,204 @@
+package minemaze;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Records a game in the compact binary replay format described in {@link ReplayFormat}.
+ * <p>
+ * The encoder is a {@link GameLogSink}: set it on the engine before the first tick. The header with the
+ * map and the initial actors is written on construction; after that each tick only stores the actors that
+ * moved, appeared or disappeared. {@link ReplayConverter} turns a replay back into the text log.
+ */
+public class ReplayEncoder implements GameLogSink {
+    private static final ElementType[] TYPES = ElementType.values();
+
+    private final GameEngine engine;
+    private final DataOutputStream output;
+    // State of every layer as of the previous tick, indexed by element type ordinal
+    private final int[][] lastXs = new int[ElementType.values().length][];
+    private final int[][] lastYs = new int[ElementType.values().length][];
+    private final boolean[][] lastVisible = new boolean[ElementType.values().length][];
+    private final int[] lastSizes = new int[ElementType.values().length];
+    // Layer versions as of the previous tick; a layer whose version did not move has not changed
+    private final int[] lastVersions = new int[ElementType.values().length];
+    private int lastMovementIndex;
+    // Changes of the tick being encoded, as packed (index << 2 | kind) entries plus payload
+    private int[] changes = new int[64];
+
+    public ReplayEncoder(OutputStream output, GameEngine engine) throws IOException {
+        this.engine = engine;
+        this.output = new DataOutputStream(new BufferedOutputStream(output));
+        writeHeader();
+    }
+
+    private void writeHeader() throws IOException {
+        output.write(ReplayFormat.MAGIC);
+        ReplayFormat.writeVarint(output, ReplayFormat.VERSION);
+
+        MapGrid grid = engine.getGrid();
+        ReplayFormat.writeVarint(output, grid.getNbHorzCells());
+        ReplayFormat.writeVarint(output, grid.getNbVertCells());
+        for (int y = 0; y < grid.getNbVertCells(); y++) {
+            for (int x = 0; x < grid.getNbHorzCells(); x++) {
+                output.writeByte(grid.getCell(x, y).ordinal());
+            }
+        }
+
+        for (ElementType type : TYPES) {
+            ActorLayer layer = engine.getLayer(type);
+            ReplayFormat.writeVarint(output, layer.size());
+            for (int i = 0; i < layer.size(); i++) {
+                ReplayFormat.writeSignedVarint(output, layer.getX(i));
+                ReplayFormat.writeSignedVarint(output, layer.getY(i));
+                output.writeBoolean(layer.isVisible(i));
+            }
+            remember(type, layer);
+        }
+        lastMovementIndex = engine.getAutoMovementIndex();
+        ReplayFormat.writeSignedVarint(output, lastMovementIndex);
+        ReplayFormat.writeVarint(output, engine.isHashLogged() ? ReplayFormat.HASHED : 0);
+    }
+
+    private void remember(ElementType type, ActorLayer layer) {
+        int t = type.ordinal();
+        if (lastXs[t] == null || lastXs[t].length < layer.size()) {
+            int capacity = Math.max(4, layer.size() * 2);
+            lastXs[t] = new int[capacity];
+            lastYs[t] = new int[capacity];
+            lastVisible[t] = new boolean[capacity];
+        }
+        for (int i = 0; i < layer.size(); i++) {
+            lastXs[t][i] = layer.getX(i);
+            lastYs[t][i] = layer.getY(i);
+            lastVisible[t][i] = layer.isVisible(i);
+        }
+        lastSizes[t] = layer.size();
+        lastVersions[t] = layer.getVersion();
+    }
+
+    /**
+     * Called by the engine at the end of every tick. The text is ignored; the deltas come from the engine state.
+     */
+    @Override
+    public void writeLine(CharSequence line) {
+        try {
+            writeTick();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeTick() throws IOException {
+        output.writeByte(ReplayFormat.TICK_RECORD);
+        int movementIndex = engine.getAutoMovementIndex();
+        ReplayFormat.writeSignedVarint(output, movementIndex - lastMovementIndex);
+        lastMovementIndex = movementIndex;
+        if (engine.isHashLogged()) {
+            // The hash also covers counters the replay does not hold, so it is stored rather than rebuilt
+            output.writeLong(engine.getStateHash());
+        }
+
+        int changedLayers = 0;
+        for (ElementType type : TYPES) {
+            if (hasChanged(type)) {
+                changedLayers++;
+            }
+        }
+        ReplayFormat.writeVarint(output, changedLayers);
+        for (ElementType type : TYPES) {
+            if (hasChanged(type)) {
+                writeLayerChanges(type);
+            }
+        }
+    }
+
+    /**
+     * Whether the layer may have changed since the last tick; only layers that did are scanned for changes
+     */
+    private boolean hasChanged(ElementType type) {
+        return engine.getLayer(type).getVersion() != lastVersions[type.ordinal()];
+    }
+
+    private void writeLayerChanges(ElementType type) throws IOException {
+        int t = type.ordinal();
+        ActorLayer layer = engine.getLayer(type);
+        int length = 0;
+        int count = 0;
+        for (int i = 0; i < layer.size(); i++) {
+            boolean isNew = i >= lastSizes[t];
+            int x = layer.getX(i);
+            int y = layer.getY(i);
+            boolean wasVisible = isNew || lastVisible[t][i];
+            if (isNew) {
+                length = addChange(length, i << 2 | ReplayFormat.ADD, x, y);
+                count++;
+            } else if (x != lastXs[t][i] || y != lastYs[t][i]) {
+                length = addChange(length, i << 2 | ReplayFormat.MOVE, x - lastXs[t][i], y - lastYs[t][i]);
+                count++;
+            }
+            if (wasVisible != layer.isVisible(i)) {
+                length = addChange(length, i << 2 | (layer.isVisible(i) ? ReplayFormat.SHOW : ReplayFormat.HIDE));
+                count++;
+            }
+        }
+
+        ReplayFormat.writeVarint(output, t);
+        ReplayFormat.writeVarint(output, count);
+        for (int i = 0; i < length; ) {
+            int change = changes[i++];
+            ReplayFormat.writeVarint(output, change);
+            int kind = change & 3;
+            if (kind == ReplayFormat.MOVE || kind == ReplayFormat.ADD) {
+                ReplayFormat.writeSignedVarint(output, changes[i++]);
+                ReplayFormat.writeSignedVarint(output, changes[i++]);
+            }
+        }
+        remember(type, layer);
+    }
+
+    private int addChange(int length, int change) {
+        if (length + 1 > changes.length) {
+            changes = Arrays.copyOf(changes, changes.length * 2);
+        }
+        changes[length] = change;
+        return length + 1;
+    }
+
+    private int addChange(int length, int change, int first, int second) {
+        if (length + 3 > changes.length) {
+            changes = Arrays.copyOf(changes, changes.length * 2);
+        }
+        changes[length] = change;
+        changes[length + 1] = first;
+        changes[length + 2] = second;
+        return length + 3;
+    }
+
+    @Override
+    public void writeOutcome(String outcome) {
+        try {
+            output.writeByte(ReplayFormat.OUTCOME_RECORD);
+            byte[] bytes = outcome.getBytes(StandardCharsets.UTF_8);
+            ReplayFormat.writeVarint(output, bytes.length);
+            output.write(bytes);
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package minemaze;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Constants and varint helpers of the binary replay format.
+ * <pre>
+ * header: "MMRP" version
+ *         width height, then width * height cell ordinals in row-major order
+ *         for every element type: actor count, then x y visible for each actor
+ *         movement index, flags
+ * tick:   TICK_RECORD, movement index delta, the state hash as 8 bytes when the HASHED flag is set,
+ *         number of changed layers,
+ *         then per layer: type ordinal, change count, changes
+ * change: (actor index &lt;&lt; 2 | kind), followed by dx dy for MOVE and x y for ADD
+ * end:    OUTCOME_RECORD, outcome text length and UTF-8 bytes
+ * </pre>
+ * Every number is a varint; signed numbers (coordinates and deltas) are zigzag encoded first.
+ */
+final class ReplayFormat {
+    static final byte[] MAGIC = {'M', 'M', 'R', 'P'};
+    static final int VERSION = 3;
+
+    // Header flag: the game logged its state hash, so every tick carries it
+    static final int HASHED = 1;
+
+    static final int TICK_RECORD = 1;
+    static final int OUTCOME_RECORD = 2;
+
+    static final int MOVE = 0;
+    static final int HIDE = 1;
+    static final int SHOW = 2;
+    static final int ADD = 3;
+
+    private ReplayFormat() {
+    }
+
+    static void writeVarint(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    static void writeSignedVarint(DataOutput output, int value) throws IOException {
+        writeVarint(output, (value << 1) ^ (value >> 31));
+    }
+
+    static int readVarint(DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in replay");
+    }
+
+    static int readSignedVarint(DataInput input) throws IOException {
+        int value = readVarint(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,211 @@
+package minemaze;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A game setup parsed and validated once: the map, the settings, the actor locations and the compiled
+ * movement scripts of a properties file.
+ * <p>
+ * A scenario never changes after it is parsed, so any number of games, on any threads, can be started from
+ * it with {@link GameEngine#GameEngine(Scenario)} without parsing the properties again. Each game gets its
+ * own copy of the scripts; the map is shared.
+ */
+public final class Scenario {
+    public static final String MOVEMENT_MODE_PROPERTY = "movement.mode";
+    public static final String DURATION_PROPERTY = "duration";
+    public static final String SIMULATION_PERIOD_PROPERTY = "simulationPeriod";
+    public static final String ORES_WINNING_PROPERTY = "ores.winning";
+    public static final String BOMB_MAX_PROPERTY = "bomb.max";
+    public static final String ORE_LOCATIONS_PROPERTY = "ore.locations";
+    public static final String FUEL_LOCATIONS_PROPERTY = "fuel.locations";
+    public static final String BOOSTER_LOCATIONS_PROPERTY = "booster.locations";
+    private static final String SCRIPT_SUFFIX = ".movements";
+    private static final int[] NO_LOCATIONS = new int[0];
+
+    private final Properties properties;
+    private final MapGrid map;
+    private final boolean isAutoMode;
+    private final int duration;
+    private final int simulationPeriod;
+    private final int oresWinning;
+    private final int maxNumberOfBombs;
+    // Locations as {x0, y0, x1, y1, ...}
+    private final int[] oreLocations;
+    private final int[] fuelLocations;
+    private final int[] boosterLocations;
+    // Compiled scripts by property, e.g. pusher.movements; never played, only copied
+    private final Map<String, CompiledScript> scripts;
+
+    private Scenario(Properties properties, MapGrid map) {
+        this.properties = properties;
+        this.map = map;
+        String movementMode = properties.getProperty(MOVEMENT_MODE_PROPERTY);
+        if (movementMode == null) {
+            throw new IllegalArgumentException("Missing property " + MOVEMENT_MODE_PROPERTY);
+        }
+        isAutoMode = movementMode.equals("auto");
+        duration = parseInt(DURATION_PROPERTY);
+        simulationPeriod = parseInt(SIMULATION_PERIOD_PROPERTY);
+        oresWinning = parseInt(ORES_WINNING_PROPERTY);
+        maxNumberOfBombs = parseInt(BOMB_MAX_PROPERTY);
+        oreLocations = parseLocations(ORE_LOCATIONS_PROPERTY);
+        fuelLocations = parseLocations(FUEL_LOCATIONS_PROPERTY);
+        boosterLocations = parseLocations(BOOSTER_LOCATIONS_PROPERTY);
+
+        Map<String, CompiledScript> compiled = new HashMap<>();
+        for (String property : properties.stringPropertyNames()) {
+            if (property.endsWith(SCRIPT_SUFFIX)) {
+                compiled.put(property, CompiledScript.compile(properties.getProperty(property), property));
+            }
+        }
+        scripts = Collections.unmodifiableMap(compiled);
+    }
+
+    /**
+     * Parse and validate a scenario
+     *
+     * @param properties copied, so later changes to it do not reach the scenario
+     * @throws IllegalArgumentException for a missing or malformed setting, location or script
+     */
+    public static Scenario parse(Properties properties, MapGrid map) {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        return new Scenario(copy, map);
+    }
+
+    private int parseInt(String property) {
+        String value = properties.getProperty(property);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing property " + property);
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(property + " is not a number: " + value, e);
+        }
+    }
+
+    /**
+     * Parse locations written as "x-y;x-y", skipping empty entries
+     */
+    private int[] parseLocations(String property) {
+        String value = properties.getProperty(property);
+        if (value == null || value.isEmpty()) {
+            return NO_LOCATIONS;
+        }
+        int[] locations = new int[8];
+        int count = 0;
+        for (String location : value.split(";")) {
+            if (location.isEmpty()) {
+                continue;
+            }
+            String[] coordinates = location.split("-");
+            try {
+                if (coordinates.length != 2) {
+                    throw new NumberFormatException();
+                }
+                if (count + 2 > locations.length) {
+                    locations = Arrays.copyOf(locations, locations.length * 2);
+                }
+                locations[count] = Integer.parseInt(coordinates[0].trim());
+                locations[count + 1] = Integer.parseInt(coordinates[1].trim());
+                count += 2;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(property + ": location '" + location + "' is not x-y", e);
+            }
+        }
+        return Arrays.copyOf(locations, count);
+    }
+
+    public MapGrid getMap() {
+        return map;
+    }
+
+    public boolean isAutoMode() {
+        return isAutoMode;
+    }
+
+    /**
+     * @return the length of the game in seconds
+     */
+    public int getDuration() {
+        return duration;
+    }
+
+    public int getSimulationPeriod() {
+        return simulationPeriod;
+    }
+
+    public int getOresWinning() {
+        return oresWinning;
+    }
+
+    public int getMaxNumberOfBombs() {
+        return maxNumberOfBombs;
+    }
+
+    /**
+     * @return the ore locations of the properties as {x0, y0, x1, y1, ...}
+     */
+    public int[] getOreLocations() {
+        return oreLocations.clone();
+    }
+
+    public int[] getFuelLocations() {
+        return fuelLocations.clone();
+    }
+
+    public int[] getBoosterLocations() {
+        return boosterLocations.clone();
+    }
+
+    /**
+     * Locations without the copy, for the engine
+     */
+    int[] locationsOf(ElementType type) {
+        switch (type) {
+            case ORE:
+                return oreLocations;
+            case FUEL:
+                return fuelLocations;
+            case BOOSTER:
+                return boosterLocations;
+            default:
+                return NO_LOCATIONS;
+        }
+    }
+
+    /**
+     * @return a setting that is not parsed into the scenario, such as clock.mode, or null
+     */
+    public String getProperty(String property) {
+        return properties.getProperty(property);
+    }
+
+    /**
+     * @return a copy of the properties the scenario was parsed from
+     */
+    public Properties getProperties() {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        return copy;
+    }
+
+    /**
+     * A script ready to play from its first step: streamed from the file named by the property with
+     * {@link MovementScript#FILE_SUFFIX} when there is one, else a copy of the compiled script, which is
+     * empty when the property is not set
+     */
+    public MovementScript newScript(String property) {
+        String scriptFile = properties.getProperty(property + MovementScript.FILE_SUFFIX);
+        if (scriptFile != null && !scriptFile.isEmpty()) {
+            return MovementScript.fromProperties(properties, property);
+        }
+        CompiledScript script = scripts.get(property);
+        return script != null ? script.copy() : CompiledScript.compile("", property);
+    }
+}
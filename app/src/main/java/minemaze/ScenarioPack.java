@@ -0,0 +1,201 @@
+package minemaze;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The scenarios of a directory or zip file, loaded in parallel.
+ * <p>
+ * Every properties file in the pack, at any depth, becomes an entry named by its path in the pack. A relative
+ * map.file is looked up next to the properties file in the pack first, then as {@link MapLoader} would.
+ * Parsed scenarios are cached for the life of the JVM by the SHA-256 of the properties file and of its map,
+ * wherever the map is, so loading a pack again, or another pack with the same scenarios, only reads and
+ * hashes the files. A map paged from disk with map.chunked is not read whole, so its scenario is parsed
+ * afresh every time and not cached. A scenario that cannot be read or parsed becomes an entry with an
+ * error rather than failing the whole pack.
+ */
+public final class ScenarioPack {
+    public static final String ZIP_EXTENSION = ".zip";
+
+    private static final Map<String, Scenario> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * One properties file of a pack: its scenario, or why it could not be parsed
+     */
+    public static final class Entry {
+        private final String name;
+        private final Scenario scenario;
+        private final String error;
+
+        private Entry(String name, Scenario scenario, String error) {
+            this.name = name;
+            this.scenario = scenario;
+            this.error = error;
+        }
+
+        public String getName() { return name; }
+        public Scenario getScenario() { return scenario; }
+        public String getError() { return error; }
+    }
+
+    private final List<Entry> entries;
+
+    private ScenarioPack(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Load every scenario of a directory or of a zip file
+     */
+    public static ScenarioPack load(Path pack) throws IOException {
+        if (Files.isDirectory(pack)) {
+            return loadFrom(pack);
+        }
+        try (FileSystem zip = FileSystems.newFileSystem(pack)) {
+            return loadFrom(zip.getPath("/"));
+        }
+    }
+
+    private static ScenarioPack loadFrom(Path root) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(file -> file.toString().endsWith(BatchRunner.PROPERTIES_EXTENSION))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        return new ScenarioPack(IntStream.range(0, files.size()).parallel()
+                .mapToObj(i -> load(root, files.get(i)))
+                .collect(Collectors.toList()));
+    }
+
+    private static Entry load(Path root, Path file) {
+        String name = root.relativize(file).toString();
+        try {
+            byte[] propertiesBytes = Files.readAllBytes(file);
+            Properties properties = new Properties();
+            properties.load(new ByteArrayInputStream(propertiesBytes));
+
+            String mapFile = properties.getProperty(MapLoader.MAP_FILE_PROPERTY);
+            if (mapFile == null || mapFile.isEmpty()) {
+                return new Entry(name, cached(propertiesBytes, null, properties, null), null);
+            }
+            Path mapPath = findMap(root, file, mapFile);
+            if (mapPath != null && mapPath.getFileSystem() == FileSystems.getDefault()
+                    && Boolean.parseBoolean(properties.getProperty(MapLoader.CHUNKED_PROPERTY))) {
+                return new Entry(name, Scenario.parse(properties, ChunkedMapGrid.open(mapPath)), null);
+            }
+            byte[] mapBytes = mapPath != null ? Files.readAllBytes(mapPath) : readResource(mapFile);
+            return new Entry(name, cached(propertiesBytes, mapBytes, properties, name), null);
+        } catch (IOException | IllegalArgumentException e) {
+            return new Entry(name, null, e.toString());
+        }
+    }
+
+    /**
+     * @param mapBytes the map, or null for the default map
+     * @return the scenario of the properties and map from the cache, parsed and cached when not there yet
+     */
+    private static Scenario cached(byte[] propertiesBytes, byte[] mapBytes, Properties properties, String name) {
+        MessageDigest digest = newDigest();
+        digest.update(propertiesBytes);
+        if (mapBytes != null) {
+            digest.update(mapBytes);
+        }
+        String contentHash = toHex(digest.digest());
+
+        Scenario scenario = CACHE.get(contentHash);
+        if (scenario == null) {
+            MapGrid map = mapBytes != null ? MapLoader.parse(mapBytes, name) : new MapGrid();
+            scenario = Scenario.parse(properties, map);
+            CACHE.putIfAbsent(contentHash, scenario);
+        }
+        return scenario;
+    }
+
+    /**
+     * Find the map file where {@link MapLoader} would, after looking next to the properties file in the pack
+     *
+     * @return the map file, or null when it can only be a class path resource
+     */
+    private static Path findMap(Path root, Path file, String mapFile) {
+        Path inPack = file.getParent().resolve(mapFile).normalize();
+        if (inPack.startsWith(root) && Files.isRegularFile(inPack)) {
+            return inPack;
+        }
+        Path path = Paths.get(mapFile);
+        // MapLoader only looks next to the properties file on the default file system, not in a zip
+        if (root.getFileSystem() == FileSystems.getDefault() && !path.isAbsolute()
+                && Files.exists(file.getParent().resolve(path))) {
+            return file.getParent().resolve(path);
+        }
+        return Files.exists(path) ? path : null;
+    }
+
+    private static byte[] readResource(String mapFile) throws IOException {
+        try (InputStream input = ScenarioPack.class.getClassLoader().getResourceAsStream(mapFile)) {
+            if (input == null) {
+                throw new IOException("Map file not found: " + mapFile);
+            }
+            return input.readAllBytes();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JDK has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >>> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @return the entries in path order
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of scenarios parsed and kept in this JVM
+     */
+    public static int getCacheSize() {
+        return CACHE.size();
+    }
+
+    /**
+     * Forget every parsed scenario, e.g. to free their memory
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+}
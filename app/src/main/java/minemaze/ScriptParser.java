@@ -0,0 +1,136 @@
+package minemaze;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads movement script steps from a character stream one at a time, without splitting the script into
+ * strings. Malformed steps are rejected with their step number.
+ */
+class ScriptParser {
+    private final Reader reader;
+    private final String name;
+    private final StringBuilder token = new StringBuilder();
+    private int step;
+    // Empty steps still to return before the held step
+    private int pendingWaits;
+    private int heldOpcode = MovementScript.END;
+    private int x;
+    private int y;
+
+    ScriptParser(Reader reader, String name) {
+        this.reader = reader;
+        this.name = name;
+    }
+
+    /**
+     * @return the opcode of the next step, or {@link MovementScript#END}
+     * @throws IllegalArgumentException for a step that is not x-y, Bomb or empty
+     */
+    int next() {
+        if (pendingWaits > 0) {
+            pendingWaits--;
+            step++;
+            return MovementScript.WAIT;
+        }
+        if (heldOpcode != MovementScript.END) {
+            int opcode = heldOpcode;
+            heldOpcode = MovementScript.END;
+            step++;
+            return opcode;
+        }
+
+        // Empty steps only count once a real step follows them, like String.split drops trailing ones
+        int empties = 0;
+        while (readToken()) {
+            if (token.length() == 0) {
+                empties++;
+                continue;
+            }
+            int opcode = parseToken(step + empties + 1);
+            step++;
+            if (empties == 0) {
+                return opcode;
+            }
+            pendingWaits = empties - 1;
+            heldOpcode = opcode;
+            return MovementScript.WAIT;
+        }
+        return MovementScript.END;
+    }
+
+    /**
+     * Read up to the next ';' or the end of the input, skipping whitespace
+     *
+     * @return false if the input had nothing left at all
+     */
+    private boolean readToken() {
+        token.setLength(0);
+        try {
+            int c = reader.read();
+            if (c < 0) {
+                return false;
+            }
+            while (c >= 0 && c != ';') {
+                if (!Character.isWhitespace(c)) {
+                    token.append((char) c);
+                }
+                c = reader.read();
+            }
+            if (c < 0 && token.length() == 0) {
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int parseToken(int tokenStep) {
+        if (token.length() == GameEngine.BOMB_COMMAND.length() && GameEngine.BOMB_COMMAND.contentEquals(token)) {
+            return MovementScript.BOMB;
+        }
+
+        int dash = token.indexOf("-");
+        if (dash > 0 && dash < token.length() - 1) {
+            x = parseNumber(0, dash);
+            y = parseNumber(dash + 1, token.length());
+            if (x >= 0 && y >= 0) {
+                return MovementScript.MOVE;
+            }
+        }
+        throw new IllegalArgumentException(name + " step " + tokenStep + ": expected x-y, " + GameEngine.BOMB_COMMAND +
+                " or nothing, found '" + token + "'");
+    }
+
+    /**
+     * @return the number, or -1 if the characters are not all digits or it does not fit in an int
+     */
+    private int parseNumber(int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9' || value > Integer.MAX_VALUE) {
+                return -1;
+            }
+            value = value * 10 + c - '0';
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+
+    int getX() {
+        return x;
+    }
+
+    int getY() {
+        return y;
+    }
+
+    /**
+     * @return the number of steps returned so far
+     */
+    int getStep() {
+        return step;
+    }
+}
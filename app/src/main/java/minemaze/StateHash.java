@@ -0,0 +1,40 @@
+package minemaze;
+
+/**
+ * Keys of the incremental Zobrist hash of a game's state.
+ * <p>
+ * Zobrist hashing gives every actor type at every cell a random 64-bit key and keeps the sum of the keys of
+ * what is on the board, updating it as actors come, go and move. Rather than a table of random keys, which
+ * would grow with the map, a key is the SplitMix64 finaliser of the type and cell, so keys are the same on
+ * every JDK and machine. Keys are added rather than XORed so that two actors of one type in the same cell do
+ * not cancel out.
+ */
+final class StateHash {
+    // Kinds of counts hashed next to the board
+    static final int ORES_COLLECTED = 0;
+    static final int FUEL_USED = 1;
+
+    private StateHash() {
+    }
+
+    /**
+     * @return the key of an actor of the given type at the given cell
+     */
+    static long actorKey(ElementType type, int x, int y) {
+        return mix((long) type.ordinal() << 58 ^ (long) (y & 0x1fffffff) << 29 ^ (x & 0x1fffffff));
+    }
+
+    /**
+     * @return the key of a count, such as {@link #ORES_COLLECTED}, having the given value
+     */
+    static long countKey(int kind, int count) {
+        return mix(Long.MIN_VALUE | (long) kind << 32 | (count & 0xffffffffL));
+    }
+
+    private static long mix(long z) {
+        z += 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,203 @@
+package minemaze;
+
+import java.lang.ref.WeakReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The part of a map that never changes during a game: which cells are border, which neighbours of each cell
+ * can be entered, and where the map draws its actors.
+ * <p>
+ * It is worked out once per map and interned by a {@link Key} the grid gives without building anything, so
+ * every game on the same map, on any thread, shares one instance and a game only holds its moving actors.
+ * Only the border is stored, one bit per cell; the neighbours of a cell are read off the border bits around
+ * it. Cells outside the grid count as border.
+ */
+public final class StaticMap {
+    // Neighbour bits, in the order right, left, down, up
+    public static final int RIGHT = 1;
+    public static final int LEFT = 2;
+    public static final int DOWN = 4;
+    public static final int UP = 8;
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    // Interned maps; an entry goes once no game or grid refers to its map any more
+    private static final Map<Key, WeakReference<StaticMap>> INTERNED = new WeakHashMap<>();
+
+    /**
+     * What the intern table knows a map by: its size and either a digest of its cells or the identity of
+     * the file it is paged from
+     */
+    static final class Key {
+        private final int width;
+        private final int height;
+        private final String id;
+
+        private Key(int width, int height, String id) {
+            this.width = width;
+            this.height = height;
+            this.id = id;
+        }
+
+        /**
+         * @param cells the element type ordinals of the cells, row by row
+         */
+        static Key ofCells(int width, int height, byte[] cells) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(cells);
+                StringBuilder id = new StringBuilder("cells:");
+                for (byte b : digest) {
+                    id.append(Character.forDigit((b >>> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+                }
+                return new Key(width, height, id.toString());
+            } catch (NoSuchAlgorithmException e) {
+                // Every JDK has SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * @param file what tells the file apart from other files and from itself after it changed
+         */
+        static Key ofFile(int width, int height, String file) {
+            return new Key(width, height, "file:" + file);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return width == other.width && height == other.height && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * width + height) + id.hashCode();
+        }
+    }
+
+    // Held so the intern table keeps its entry as long as the map is in use
+    private final Key key;
+    private final int width;
+    private final int height;
+    private final long[] borders;
+    // Packed cells (y * width + x) of the actors drawn on the map, by element type ordinal, in row order
+    private final int[][] actorCells;
+
+    /**
+     * Read the map once, row by row, for its border and actors
+     */
+    private StaticMap(MapGrid grid, Key key) {
+        this.key = key;
+        width = grid.getNbHorzCells();
+        height = grid.getNbVertCells();
+        borders = new long[Math.toIntExact(((long) width * height + 63) >>> 6)];
+        int[] actorCounts = new int[ElementType.values().length];
+        int[][] found = new int[ElementType.values().length][];
+        byte[] row = new byte[width];
+        for (int y = 0; y < height; y++) {
+            grid.readRow(y, row);
+            for (int x = 0; x < width; x++) {
+                ElementType type = MapGrid.TYPES[row[x]];
+                if (type == ElementType.BORDER) {
+                    long cell = (long) y * width + x;
+                    borders[(int) (cell >>> 6)] |= 1L << cell;
+                } else if (type != ElementType.OUTSIDE && type != ElementType.EMPTY) {
+                    int t = type.ordinal();
+                    if (found[t] == null) {
+                        found[t] = new int[4];
+                    } else if (actorCounts[t] == found[t].length) {
+                        found[t] = Arrays.copyOf(found[t], actorCounts[t] * 2);
+                    }
+                    found[t][actorCounts[t]++] = Math.toIntExact((long) y * width + x);
+                }
+            }
+        }
+        actorCells = new int[found.length][];
+        for (int t = 0; t < found.length; t++) {
+            actorCells[t] = found[t] == null ? new int[0] : Arrays.copyOf(found[t], actorCounts[t]);
+        }
+    }
+
+    /**
+     * @return the static layer of a map, shared with every other map of the same key. The intern table is
+     * looked up first, so a map that is already interned is not read again.
+     */
+    static StaticMap of(MapGrid grid) {
+        Key key = grid.getStaticMapKey();
+        synchronized (INTERNED) {
+            StaticMap existing = interned(key);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        // Built outside the lock, so reading a large map does not hold up games on other maps
+        StaticMap map = new StaticMap(grid, key);
+        synchronized (INTERNED) {
+            StaticMap existing = interned(key);
+            if (existing != null) {
+                return existing;
+            }
+            INTERNED.put(key, new WeakReference<>(map));
+            return map;
+        }
+    }
+
+    private static StaticMap interned(Key key) {
+        WeakReference<StaticMap> interned = INTERNED.get(key);
+        return interned == null ? null : interned.get();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isInside(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * @return whether the cell is border or outside the grid
+     */
+    public boolean isBorder(int x, int y) {
+        if (!isInside(x, y)) {
+            return true;
+        }
+        long cell = (long) y * width + x;
+        return (borders[(int) (cell >>> 6)] & 1L << cell) != 0;
+    }
+
+    /**
+     * @return the {@link #RIGHT}, {@link #LEFT}, {@link #DOWN} and {@link #UP} bits of the neighbours of a cell
+     * that are inside the grid and not border
+     */
+    public int getNeighbours(int x, int y) {
+        int mask = 0;
+        for (int d = 0; d < DX.length; d++) {
+            if (!isBorder(x + DX[d], y + DY[d])) {
+                mask |= 1 << d;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return the packed cells of the actors of a type drawn on the map, in row order
+     */
+    int[] actorCells(ElementType type) {
+        return actorCells[type.ordinal()];
+    }
+}
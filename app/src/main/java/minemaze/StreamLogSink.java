@@ -0,0 +1,94 @@
+package minemaze;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the log to an output stream through a fixed-size buffer, so memory use does not grow with the
+ * length of the game. With {@code flushEveryTick} set, each line reaches the stream as soon as its tick ends.
+ * Lines are encoded as UTF-8 straight into the buffer, so writing a line allocates nothing.
+ */
+public class StreamLogSink implements GameLogSink {
+    public static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream output;
+    private final boolean flushEveryTick;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+
+    public StreamLogSink(OutputStream output, boolean flushEveryTick) {
+        this.output = output;
+        this.flushEveryTick = flushEveryTick;
+    }
+
+    @Override
+    public void writeLine(CharSequence line) {
+        try {
+            append(line);
+            put('\n');
+            if (flushEveryTick) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void writeOutcome(String outcome) {
+        try {
+            append(outcome);
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void append(CharSequence text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                put(c);
+            } else if (c < 0x800) {
+                put(0xc0 | c >> 6);
+                put(0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                put(0xf0 | codePoint >> 18);
+                put(0x80 | codePoint >> 12 & 0x3f);
+                put(0x80 | codePoint >> 6 & 0x3f);
+                put(0x80 | codePoint & 0x3f);
+            } else {
+                put(0xe0 | c >> 12);
+                put(0x80 | c >> 6 & 0x3f);
+                put(0x80 | c & 0x3f);
+            }
+        }
+    }
+
+    private void put(int b) throws IOException {
+        if (count == buffer.length) {
+            output.write(buffer, 0, count);
+            count = 0;
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    private void flush() throws IOException {
+        output.write(buffer, 0, count);
+        count = 0;
+        output.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+            output.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package minemaze;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A movement script read from a file as the game plays it, for generated scripts too long to hold in memory.
+ * The file is checked from end to end when it is opened, so a malformed step fails before the game starts.
+ */
+public class StreamingScript implements MovementScript {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final ScriptParser parser;
+
+    private StreamingScript(Reader reader, String name) {
+        this.reader = reader;
+        this.parser = new ScriptParser(reader, name);
+    }
+
+    /**
+     * @throws IllegalArgumentException for a step that is not x-y, Bomb or empty
+     */
+    public static StreamingScript open(Path scriptFile) throws IOException {
+        String name = scriptFile.toString();
+        try (Reader check = newReader(scriptFile)) {
+            ScriptParser parser = new ScriptParser(check, name);
+            while (parser.next() != END) {
+                // Parsing is the check
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new StreamingScript(newReader(scriptFile), name);
+    }
+
+    private static Reader newReader(Path scriptFile) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(scriptFile), StandardCharsets.US_ASCII),
+                BUFFER_SIZE);
+    }
+
+    @Override
+    public int next() {
+        return parser.next();
+    }
+
+    @Override
+    public int getX() {
+        return parser.getX();
+    }
+
+    @Override
+    public int getY() {
+        return parser.getY();
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
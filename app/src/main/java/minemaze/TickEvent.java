@@ -0,0 +1,46 @@
+package minemaze;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one game tick. Its duration is the whole tick; the fields split it into phases.
+ * Record with e.g. {@code -XX:StartFlightRecording:settings=profile} and a threshold on {@code minemaze.Tick}
+ * to keep only slow ticks.
+ */
+@Name("minemaze.Tick")
+@Label("Game Tick")
+@Category("MineMaze")
+@Description("One simulation tick of a MineMaze game")
+class TickEvent extends Event {
+    @Label("Tick")
+    long tick;
+
+    @Label("Move Resolution")
+    @Timespan
+    long moveResolutionNanos;
+
+    @Label("Collision Checks")
+    @Timespan
+    long collisionNanos;
+
+    @Label("Log Serialization")
+    @Timespan
+    long logNanos;
+
+    @Label("Path Length")
+    int pathLength;
+
+    @Label("Path Steps Left")
+    int pathRemaining;
+
+    @Label("Ores Collected")
+    int oresCollected;
+
+    @Label("State Hash")
+    long stateHash;
+}
@@ -0,0 +1,242 @@
+package minemaze;
+
+/**
+ * Events due at a later game tick, such as bomb fuses, kept on a hashed timing wheel.
+ * <p>
+ * An event goes into the slot of its tick modulo the wheel size, in a circular doubly-linked list held in
+ * int arrays, so scheduling and cancelling are O(1) and allocate nothing once the arrays have grown to the
+ * number of pending events. Advancing a tick only looks at one slot; events more than a turn of the wheel
+ * away stay in their slot until their own tick comes round. The arrays are copy-on-write, so a
+ * {@link State} taken with {@link #freeze()} costs O(1) and shares them until the wheel next changes them.
+ * Not thread-safe, like the engine that owns it.
+ */
+public class TimingWheel {
+    public static final int DEFAULT_SLOTS = 64;
+
+    /**
+     * Called for each event when its tick is reached
+     */
+    public interface Listener {
+        void fire(int kind, int payload);
+    }
+
+    private static final int FREE = -1;
+
+    /**
+     * The pending events and current tick of a wheel at one moment; never changes
+     */
+    static final class State {
+        private final int slots;
+        private final CowIntArray.Frozen next;
+        private final CowIntArray.Frozen previous;
+        private final CowIntArray.Frozen deadlines;
+        private final CowIntArray.Frozen kinds;
+        private final CowIntArray.Frozen payloads;
+        private final int firstFree;
+        private final int nodeCount;
+        private final int size;
+        private final int currentTick;
+
+        private State(TimingWheel wheel) {
+            slots = wheel.mask + 1;
+            next = wheel.next.freeze();
+            previous = wheel.previous.freeze();
+            deadlines = wheel.deadlines.freeze();
+            kinds = wheel.kinds.freeze();
+            payloads = wheel.payloads.freeze();
+            firstFree = wheel.firstFree;
+            nodeCount = wheel.nodeCount;
+            size = wheel.size;
+            currentTick = wheel.currentTick;
+        }
+    }
+
+    private final int mask;
+    // The list of events firing in the current tick; nodes below it are the slot heads
+    private final int dueHead;
+    // Nodes: the heads first, then events. An event's deadline is FREE while it is not scheduled.
+    private final CowIntArray next;
+    private final CowIntArray previous;
+    private final CowIntArray deadlines;
+    private final CowIntArray kinds;
+    private final CowIntArray payloads;
+    private int firstFree = FREE;
+    private int nodeCount;
+    private int size;
+    private int currentTick;
+
+    public TimingWheel() {
+        this(DEFAULT_SLOTS);
+    }
+
+    /**
+     * @param slots the number of slots, rounded up to a power of two
+     */
+    public TimingWheel(int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("A timing wheel needs at least one slot: " + slots);
+        }
+        int slotCount = slots == 1 ? 1 : Integer.highestOneBit(slots - 1) << 1;
+        mask = slotCount - 1;
+        dueHead = slotCount;
+        nodeCount = slotCount + 1;
+        int capacity = nodeCount * 2;
+        next = new CowIntArray(capacity);
+        previous = new CowIntArray(capacity);
+        deadlines = new CowIntArray(capacity);
+        kinds = new CowIntArray(capacity);
+        payloads = new CowIntArray(capacity);
+        for (int head = 0; head < nodeCount; head++) {
+            next.set(head, head);
+            previous.set(head, head);
+        }
+    }
+
+    /**
+     * Capture the pending events, handles and current tick in O(1)
+     */
+    State freeze() {
+        return new State(this);
+    }
+
+    /**
+     * Go back to the pending events, handles and current tick captured from a wheel of the same size
+     */
+    void restore(State state) {
+        if (state.slots != mask + 1) {
+            throw new IllegalArgumentException("Wheels of " + state.slots + " and " + (mask + 1) + " slots");
+        }
+        next.restore(state.next);
+        previous.restore(state.previous);
+        deadlines.restore(state.deadlines);
+        kinds.restore(state.kinds);
+        payloads.restore(state.payloads);
+        firstFree = state.firstFree;
+        nodeCount = state.nodeCount;
+        size = state.size;
+        currentTick = state.currentTick;
+    }
+
+    /**
+     * Schedule an event
+     *
+     * @param tick the tick to fire in, after the current one
+     * @return a handle for {@link #cancel(int)}, valid until the event fires or is cancelled
+     */
+    public int schedule(int tick, int kind, int payload) {
+        if (tick <= currentTick) {
+            throw new IllegalArgumentException("Tick " + tick + " is not after the current tick " + currentTick);
+        }
+        int node = allocate();
+        deadlines.set(node, tick);
+        kinds.set(node, kind);
+        payloads.set(node, payload);
+        link(node, tick & mask);
+        size++;
+        return node;
+    }
+
+    /**
+     * Remove a pending event, so it never fires
+     *
+     * @return whether the event was still pending
+     */
+    public boolean cancel(int handle) {
+        if (!isPending(handle)) {
+            return false;
+        }
+        unlink(handle);
+        release(handle);
+        return true;
+    }
+
+    public boolean isPending(int handle) {
+        return handle > dueHead && handle < nodeCount && deadlines.get(handle) != FREE;
+    }
+
+    /**
+     * @return the tick a pending event fires in, or -1 when it is not pending
+     */
+    public int getDeadline(int handle) {
+        return isPending(handle) ? deadlines.get(handle) : -1;
+    }
+
+    /**
+     * Fire the events of every tick up to the given one, in the order they were scheduled within a tick.
+     * The listener may schedule and cancel events, including ones due in the same tick.
+     */
+    public void advanceTo(int tick, Listener listener) {
+        while (currentTick < tick) {
+            currentTick++;
+            int head = currentTick & mask;
+            // Move the events due now to their own list first, so the slot can change while they fire
+            for (int node = next.get(head); node != head; ) {
+                int following = next.get(node);
+                if (deadlines.get(node) == currentTick) {
+                    unlink(node);
+                    link(node, dueHead);
+                }
+                node = following;
+            }
+            while (next.get(dueHead) != dueHead) {
+                int node = next.get(dueHead);
+                int kind = kinds.get(node);
+                int payload = payloads.get(node);
+                unlink(node);
+                release(node);
+                listener.fire(kind, payload);
+            }
+        }
+    }
+
+    /**
+     * @return the number of pending events
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getCurrentTick() {
+        return currentTick;
+    }
+
+    private int allocate() {
+        int node = firstFree;
+        if (node != FREE) {
+            firstFree = next.get(node);
+            return node;
+        }
+        if (nodeCount == next.length()) {
+            int capacity = nodeCount * 2;
+            next.grow(capacity);
+            previous.grow(capacity);
+            deadlines.grow(capacity);
+            kinds.grow(capacity);
+            payloads.grow(capacity);
+        }
+        return nodeCount++;
+    }
+
+    private void release(int node) {
+        deadlines.set(node, FREE);
+        next.set(node, firstFree);
+        firstFree = node;
+        size--;
+    }
+
+    /**
+     * Append a node to the end of the list with the given head
+     */
+    private void link(int node, int head) {
+        int last = previous.get(head);
+        next.set(last, node);
+        previous.set(node, last);
+        next.set(node, head);
+        previous.set(head, node);
+    }
+
+    private void unlink(int node) {
+        next.set(previous.get(node), next.get(node));
+        previous.set(next.get(node), previous.get(node));
+    }
+}
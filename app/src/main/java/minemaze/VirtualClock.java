@@ -0,0 +1,20 @@
+package minemaze;
+
+/**
+ * Fast-forward clock. Time only advances when a tick is requested, so ticks run back to back
+ * without sleeping. Game time is still counted in simulation periods, so the log and the outcome
+ * are the same as with a {@link RealTimeClock}.
+ */
+public class VirtualClock implements GameClock {
+    private long elapsedMillis;
+
+    @Override
+    public void awaitNextTick(int periodMillis) {
+        elapsedMillis += periodMillis;
+    }
+
+    @Override
+    public long elapsedMillis() {
+        return elapsedMillis;
+    }
+}
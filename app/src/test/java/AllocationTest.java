@@ -0,0 +1,50 @@
+import minemaze.GameEngine;
+import minemaze.MapGrid;
+import minemaze.PropertiesLoader;
+import minemaze.StreamLogSink;
+import minemaze.VirtualClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+public class AllocationTest {
+    private static final int WARM_UP_TICKS = 500;
+    private static final int MEASURED_TICKS = 2000;
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    @Test
+    public void testSteadyStateTickAllocatesNothing() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        // Walk back and forth along the corridor for longer than the test runs
+        StringBuilder movements = new StringBuilder("11-7");
+        for (int i = 0; i < WARM_UP_TICKS + MEASURED_TICKS; i++) {
+            movements.append(i % 2 == 0 ? ";8-7" : ";11-7");
+        }
+        properties.setProperty("pusher.movements", movements.toString());
+        properties.setProperty("duration", "100000");
+
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        engine.setClock(new VirtualClock());
+        engine.setLogSink(new StreamLogSink(OutputStream.nullOutputStream(), false));
+        for (int i = 0; i < WARM_UP_TICKS; i++) {
+            engine.tick();
+        }
+
+        // Reading the counter allocates itself; measure that with an empty window and take it off
+        long before = allocatedBytes();
+        long overhead = allocatedBytes() - before;
+        before = allocatedBytes();
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            engine.tick();
+        }
+        long allocated = allocatedBytes() - before - overhead;
+        Assert.assertTrue(engine.isRunning());
+        Assert.assertEquals("Bytes allocated by " + MEASURED_TICKS + " ticks", 0, allocated);
+    }
+}
@@ -0,0 +1,90 @@
+import minemaze.BatchRunner;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BatchRunnerTest {
+    private static final Path SCENARIOS = Paths.get("src/test/resources/properties");
+
+    @Test
+    public void testRunDirectoryConcurrently() throws Exception {
+        List<Path> scenarios = BatchRunner.collectScenarios(Collections.singletonList(SCENARIOS));
+        Assert.assertEquals(5, scenarios.size());
+
+        List<BatchRunner.Result> results = new BatchRunner(4).run(scenarios);
+        Assert.assertEquals(BatchRunner.Outcome.WON, results.get(0).getOutcome());
+        Assert.assertEquals(BatchRunner.Outcome.LOST, results.get(1).getOutcome());
+
+        // Running in parallel must not change any game
+        List<BatchRunner.Result> sequential = new BatchRunner(1).run(scenarios);
+        for (int i = 0; i < scenarios.size(); i++) {
+            Assert.assertEquals(sequential.get(i).getLogResult(), results.get(i).getLogResult());
+        }
+    }
+
+    @Test
+    public void testWriteLogsAndSummary() throws Exception {
+        Path outputDir = Files.createTempDirectory("batch");
+        List<BatchRunner.Result> results = new BatchRunner(2)
+                .run(Collections.singletonList(SCENARIOS.resolve("test1.properties")));
+        BatchRunner.writeResults(results, outputDir);
+
+        String log = new String(Files.readAllBytes(outputDir.resolve("test1.log")));
+        Assert.assertTrue(log.endsWith("You won"));
+        String summary = new String(Files.readAllBytes(outputDir.resolve(BatchRunner.SUMMARY_FILE)));
+        Assert.assertTrue(summary.contains("test1.properties"));
+        Assert.assertTrue(summary.contains("WON: 1"));
+    }
+
+    @Test
+    public void testRejectsScenariosWritingTheSameLog() throws Exception {
+        Path otherDir = Files.createTempDirectory("scenarios");
+        Path copy = Files.copy(SCENARIOS.resolve("test1.properties"), otherDir.resolve("test1.properties"));
+        Path outputDir = Files.createTempDirectory("batch");
+        try {
+            List<BatchRunner.Result> results = new BatchRunner(2)
+                    .run(Arrays.asList(SCENARIOS.resolve("test1.properties"), copy));
+            try {
+                BatchRunner.writeResults(results, outputDir);
+                Assert.fail("Both scenarios write test1.log");
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("test1.log"));
+            }
+            Assert.assertFalse(Files.exists(outputDir.resolve("test1.log")));
+        } finally {
+            Files.delete(copy);
+            Files.delete(otherDir);
+            Files.delete(outputDir);
+        }
+    }
+
+    @Test
+    public void testDirectoriesWithTheSameFileNameWriteTheirOwnLogs() throws Exception {
+        Path first = Files.createTempDirectory("scenarios");
+        Path second = Files.createTempDirectory("scenarios");
+        Path firstCopy = Files.copy(SCENARIOS.resolve("test1.properties"), first.resolve("test1.properties"));
+        Path secondCopy = Files.copy(SCENARIOS.resolve("test2.properties"), second.resolve("test1.properties"));
+        Path outputDir = Files.createTempDirectory("batch");
+        try {
+            BatchRunner.main(new String[]{"--threads", "2", "--out", outputDir.toString(), first.toString(),
+                    second.toString()});
+
+            Path firstLog = outputDir.resolve("1-" + first.getFileName()).resolve("test1.log");
+            Path secondLog = outputDir.resolve("2-" + second.getFileName()).resolve("test1.log");
+            Assert.assertTrue(new String(Files.readAllBytes(firstLog)).endsWith("You won"));
+            Assert.assertFalse(new String(Files.readAllBytes(secondLog)).endsWith("You won"));
+            String summary = new String(Files.readAllBytes(outputDir.resolve(BatchRunner.SUMMARY_FILE)));
+            Assert.assertTrue(summary.contains("WON: 1, LOST: 1"));
+        } finally {
+            for (Path path : Arrays.asList(firstCopy, secondCopy, first, second)) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import minemaze.ChunkedMapGrid;
+import minemaze.GameEngine;
+import minemaze.MapGrid;
+import minemaze.MapLoader;
+import minemaze.PropertiesLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.Random;
+
+public class ChunkedMapGridTest {
+    private static Path writeDefaultMap() throws IOException {
+        Path mapFile = Files.createTempFile("minemaze", ".bin");
+        try (OutputStream output = Files.newOutputStream(mapFile)) {
+            MapLoader.writeBinary(new MapGrid(), output);
+        }
+        return mapFile;
+    }
+
+    @Test
+    public void testCellsAndCounters() throws IOException {
+        Path mapFile = writeDefaultMap();
+        MapGrid expected = new MapGrid();
+        try (ChunkedMapGrid grid = ChunkedMapGrid.open(mapFile, 4, 2)) {
+            Assert.assertEquals(20, grid.getNbHorzCells());
+            Assert.assertEquals(11, grid.getNbVertCells());
+            for (int y = 0; y < expected.getNbVertCells(); y++) {
+                for (int x = 0; x < expected.getNbHorzCells(); x++) {
+                    Assert.assertEquals(expected.getCell(x, y), grid.getCell(x, y));
+                }
+            }
+            // 5x3 tiles, each row of cells crosses all five tiles of its tile row
+            Assert.assertEquals(11 * 5, grid.getTileMisses());
+            Assert.assertEquals(20 * 11 - 11 * 5, grid.getTileHits());
+            Assert.assertEquals(11 * 5 - 2, grid.getTileEvictions());
+            Assert.assertEquals(2, grid.getLoadedTiles());
+            Assert.assertEquals(expected.getNumberOfTargets(), grid.getNumberOfTargets());
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+
+    @Test
+    public void testGameOnChunkedMap() throws IOException {
+        Path mapFile = writeDefaultMap();
+        try {
+            final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+            Properties chunked = new Properties();
+            chunked.putAll(properties);
+            chunked.setProperty(MapLoader.MAP_FILE_PROPERTY, mapFile.toString());
+            chunked.setProperty(MapLoader.CHUNKED_PROPERTY, "true");
+            MapGrid grid = MapLoader.fromProperties(chunked);
+            Assert.assertTrue(grid instanceof ChunkedMapGrid);
+
+            GameEngine expected = new GameEngine(properties, new MapGrid());
+            GameEngine actual = new GameEngine(chunked, grid);
+            while (expected.isRunning()) {
+                expected.tick();
+                actual.tick();
+            }
+            Assert.assertEquals(expected.finish(), actual.finish());
+            ((ChunkedMapGrid) grid).close();
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+
+    /**
+     * Random reads over 1x1 tiles with room for 7 of them evict constantly, which exercises the tile index
+     */
+    @Test
+    public void testRandomReadsWithEvictions() throws IOException {
+        Path mapFile = writeDefaultMap();
+        MapGrid expected = new MapGrid();
+        Random random = new Random(42);
+        try (ChunkedMapGrid grid = ChunkedMapGrid.open(mapFile, 1, 7)) {
+            for (int i = 0; i < 20_000; i++) {
+                int x = random.nextInt(expected.getNbHorzCells());
+                int y = random.nextInt(expected.getNbVertCells());
+                Assert.assertEquals(expected.getCell(x, y), grid.getCell(x, y));
+            }
+            Assert.assertEquals(7, grid.getLoadedTiles());
+            Assert.assertEquals(grid.getTileMisses() - 7, grid.getTileEvictions());
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+}
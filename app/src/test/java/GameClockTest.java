@@ -0,0 +1,61 @@
+import minemaze.RealTimeClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class GameClockTest {
+    /**
+     * Time that only passes when the clock sleeps or the test does work, so the tests never wait
+     */
+    static class ManualTime implements RealTimeClock.TimeSource {
+        private long nanos;
+
+        @Override
+        public long nanoTime() {
+            return nanos;
+        }
+
+        @Override
+        public void sleepNanos(long nanos) {
+            this.nanos += nanos;
+        }
+
+        void work(long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+
+    @Test
+    public void testWorkDoesNotStretchPeriod() throws InterruptedException {
+        ManualTime time = new ManualTime();
+        RealTimeClock clock = new RealTimeClock(RealTimeClock.DEFAULT_MAX_CATCH_UP_TICKS, time);
+        for (int i = 0; i < 20; i++) {
+            clock.awaitNextTick(20);
+            time.work(10); // The tick's work, half a period
+        }
+        // Sleeping a whole period after each tick would take 20 * (20 + 10) = 600 ms
+        Assert.assertEquals(20 * 20 + 10, clock.elapsedMillis());
+        Assert.assertEquals(0, clock.getOverruns());
+    }
+
+    @Test
+    public void testOverrunsAndCatchUpCap() throws InterruptedException {
+        ManualTime time = new ManualTime();
+        RealTimeClock clock = new RealTimeClock(2, time);
+        clock.awaitNextTick(10);
+        time.work(105); // Nine and a half periods late
+        clock.awaitNextTick(10);
+        Assert.assertEquals(1, clock.getOverruns());
+        Assert.assertEquals(9 - 2, clock.getSkippedTicks());
+        Assert.assertEquals(95.0, clock.getMaxLatenessMillis(), 0.001);
+
+        // The two ticks allowed to catch up are due already, the one after that is not
+        clock.awaitNextTick(10);
+        clock.awaitNextTick(10);
+        Assert.assertEquals(3, clock.getOverruns());
+        clock.awaitNextTick(10);
+        Assert.assertEquals(3, clock.getOverruns());
+        Assert.assertEquals(120, clock.elapsedMillis());
+    }
+}
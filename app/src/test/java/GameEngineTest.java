@@ -0,0 +1,151 @@
+import minemaze.ElementType;
+import minemaze.GameEngine;
+import minemaze.LogReader;
+import minemaze.MapGrid;
+import minemaze.PropertiesLoader;
+import minemaze.RealTimeClock;
+import minemaze.VirtualClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+
+public class GameEngineTest {
+    private String runHeadless(String propertiesPath) {
+        final Properties properties = PropertiesLoader.loadPropertiesFile(propertiesPath);
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        while (engine.isRunning()) {
+            engine.tick();
+        }
+        return engine.finish();
+    }
+
+    @Test
+    public void testOriginalHeadless() {
+        String logResult = runHeadless("properties/test1.properties");
+        Assert.assertTrue(logResult.contains("You won"));
+        LogParser parser = new LogParser();
+        String logLine = parser.getLogLine(logResult, 82);
+        Assert.assertTrue(logLine.contains("Ore:7-5"));
+    }
+
+    @Test
+    public void testFirstTickLogLine() {
+        String logResult = runHeadless("properties/test1.properties");
+        LogParser parser = new LogParser();
+        Assert.assertEquals("1#Pusher:11-7-Fuel:100#Ore:4-7,5-2,7-5#Target:18-5,18-6,18-7,18-8#Boulder:5-6,15-6" +
+                        "#Bomber:7-3#BombMarker#Booster:9-9,13-7#HardRock:7-5,13-7",
+                parser.getLogLine(logResult, 0));
+    }
+
+    @Test
+    public void testTimeUpHeadless() {
+        String logResult = runHeadless("properties/test2.properties");
+        Assert.assertTrue(logResult.endsWith("You lost"));
+    }
+
+    @Test
+    public void testVirtualClockMatchesRealTime() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        GameEngine realTime = new GameEngine(properties, new MapGrid());
+        GameClockTest.ManualTime time = new GameClockTest.ManualTime();
+        RealTimeClock realTimeClock = new RealTimeClock(RealTimeClock.DEFAULT_MAX_CATCH_UP_TICKS, time);
+        realTime.setClock(realTimeClock);
+        GameEngine virtual = new GameEngine(properties, new MapGrid());
+        VirtualClock clock = new VirtualClock();
+        virtual.setClock(clock);
+
+        Assert.assertEquals(realTime.run(), virtual.run());
+        Assert.assertEquals(83 * 50, clock.elapsedMillis());
+        Assert.assertEquals(83 * 50, realTimeClock.elapsedMillis());
+        Assert.assertEquals(0, realTimeClock.getOverruns());
+    }
+
+    /**
+     * The straight line from the pusher at 11-8 to 8-6 is blocked by the border at 10-8,
+     * so the pusher has to go up first and then around
+     */
+    @Test
+    public void testGuidePusherAroundObstacle() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        properties.setProperty("movement.mode", "manual");
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        engine.guidePusherToLocation(8, 6);
+        for (int i = 0; i < 6; i++) {
+            engine.tick();
+        }
+
+        LogReader reader = LogReader.of(engine.getLogResult());
+        Assert.assertArrayEquals(new int[]{11, 7}, reader.getLocations(0, ElementType.PUSHER));
+        Assert.assertArrayEquals(new int[]{10, 7}, reader.getLocations(1, ElementType.PUSHER));
+        Assert.assertArrayEquals(new int[]{8, 6}, reader.getLocations(4, ElementType.PUSHER));
+        Assert.assertArrayEquals(new int[]{8, 6}, reader.getLocations(5, ElementType.PUSHER));
+    }
+
+    @Test
+    public void testGuidePusherToUnreachableCell() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        properties.setProperty("movement.mode", "manual");
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        // 5-6 holds a boulder, so the pusher falls back to the straight line: the border at 10-8
+        // blocks the horizontal part and only the vertical part up to 11-6 is walked
+        engine.guidePusherToLocation(5, 6);
+        for (int i = 0; i < 3; i++) {
+            engine.tick();
+        }
+
+        LogReader reader = LogReader.of(engine.getLogResult());
+        Assert.assertArrayEquals(new int[]{11, 6}, reader.getLocations(2, ElementType.PUSHER));
+    }
+
+    /**
+     * Bombs placed at 5-5 in tick 11 and at 14-6 in tick 22 blow up the boulders below and to the right of
+     * them six ticks later. The fourth bomb is refused because bomb.max is 3.
+     */
+    @Test
+    public void testBombsDetonateAfterFuse() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test3.properties");
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        engine.setClock(new VirtualClock());
+        String logResult = engine.run();
+
+        LogReader reader = LogReader.of(logResult);
+        Assert.assertArrayEquals(new int[]{5, 5}, reader.getLocations(15, ElementType.BOMB_MARKER));
+        Assert.assertArrayEquals(new int[]{5, 6, 15, 6}, reader.getLocations(15, ElementType.BOULDER));
+        Assert.assertArrayEquals(new int[0], reader.getLocations(16, ElementType.BOMB_MARKER));
+        Assert.assertArrayEquals(new int[]{15, 6}, reader.getLocations(16, ElementType.BOULDER));
+        Assert.assertArrayEquals(new int[0], reader.getLocations(27, ElementType.BOULDER));
+        Assert.assertArrayEquals(new int[0], reader.getLocations(36, ElementType.BOMB_MARKER));
+        Assert.assertEquals(3, engine.getStatistics().getBombsPlaced());
+        Assert.assertEquals(0, engine.getBombsLeft());
+        Assert.assertEquals(0, engine.getPendingEvents());
+    }
+
+    /**
+     * The bomb at 4-5 is caught in the blast of the one at 4-6 and goes off with it, three ticks early
+     */
+    @Test
+    public void testChainReaction() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        properties.setProperty("movement.mode", "manual");
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        Assert.assertEquals(-1, engine.getTicksToNextDetonation());
+        Assert.assertTrue(engine.placeBomb(4, 6));
+        for (int i = 0; i < 3; i++) {
+            engine.tick();
+        }
+        Assert.assertTrue(engine.placeBomb(4, 5));
+        Assert.assertEquals(3, engine.getTicksToNextDetonation());
+        for (int i = 0; i < 3; i++) {
+            engine.tick();
+        }
+        Assert.assertEquals(-1, engine.getTicksToNextDetonation());
+
+        LogReader reader = LogReader.of(engine.getLogResult());
+        Assert.assertArrayEquals(new int[]{4, 6, 4, 5}, reader.getLocations(4, ElementType.BOMB_MARKER));
+        Assert.assertArrayEquals(new int[0], reader.getLocations(5, ElementType.BOMB_MARKER));
+        Assert.assertArrayEquals(new int[]{15, 6}, reader.getLocations(5, ElementType.BOULDER));
+        Assert.assertEquals(0, engine.getPendingEvents());
+        Assert.assertEquals(1, engine.getStatistics().getRocksDestroyed());
+    }
+}
@@ -0,0 +1,64 @@
+import minemaze.GameEngine;
+import minemaze.GameMetrics;
+import minemaze.LatencyHistogram;
+import minemaze.MapGrid;
+import minemaze.PropertiesLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+public class GameMetricsTest {
+    @Test
+    public void testHistogramQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1_000_000, histogram.getMax());
+        Assert.assertEquals(500_500, histogram.getMean(), 0.001);
+        long p50 = histogram.getValueAtQuantile(0.5);
+        long p99 = histogram.getValueAtQuantile(0.99);
+        Assert.assertTrue("p50 " + p50, p50 >= 500_000 && p50 <= 500_000 * 1.125);
+        Assert.assertTrue("p99 " + p99, p99 >= 990_000 && p99 <= 1_000_000);
+        Assert.assertEquals(0, new LatencyHistogram().getValueAtQuantile(0.5));
+    }
+
+    @Test
+    public void testMetricsFile() throws IOException {
+        Path metricsFile = Files.createTempFile("minemaze", ".metrics");
+        try {
+            Properties properties = new Properties();
+            properties.putAll(PropertiesLoader.loadPropertiesFile("properties/test1.properties"));
+            properties.setProperty(GameMetrics.FILE_PROPERTY, metricsFile.toString());
+            properties.setProperty(GameMetrics.INTERVAL_PROPERTY, "20");
+            GameEngine engine = new GameEngine(properties, new MapGrid());
+            while (engine.isRunning()) {
+                engine.tick();
+            }
+            engine.finish();
+
+            GameMetrics metrics = engine.getMetrics();
+            Assert.assertEquals(83, metrics.getHistogram(GameMetrics.Phase.TICK).getCount());
+            Assert.assertEquals(83, metrics.getHistogram(GameMetrics.Phase.LOG).getCount());
+            Assert.assertEquals(2, metrics.getGauge(GameMetrics.Gauge.ORES_COLLECTED));
+            Assert.assertEquals(engine.getStatistics().getPusherMoves(),
+                    metrics.getGauge(GameMetrics.Gauge.PUSHER_MOVES));
+            Assert.assertTrue(engine.getStatistics().getPusherMoves() > 0);
+
+            // Snapshots at ticks 20, 40, 60 and 80, then the final one
+            List<String> lines = Files.readAllLines(metricsFile);
+            Assert.assertEquals(5, lines.size());
+            Assert.assertTrue(lines.get(0), lines.get(0).startsWith("tick=20 tick.count=20 "));
+            Assert.assertTrue(lines.get(4), lines.get(4).startsWith("tick=83 "));
+            Assert.assertTrue(lines.get(4), lines.get(4).contains(" ores_collected=2 "));
+        } finally {
+            Files.delete(metricsFile);
+        }
+    }
+}
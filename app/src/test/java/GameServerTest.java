@@ -0,0 +1,98 @@
+import minemaze.GameEngine;
+import minemaze.GameServer;
+import minemaze.MapGrid;
+import minemaze.PropertiesLoader;
+import minemaze.VirtualClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+public class GameServerTest {
+    private static HttpURLConnection post(GameServer server, Properties properties) throws IOException {
+        URL url = URI.create("http://localhost:" + server.getPort() + GameServer.GAMES_PATH).toURL();
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        StringWriter payload = new StringWriter();
+        properties.store(payload, null);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(payload.toString().getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return connection;
+    }
+
+    private static BufferedReader reader(HttpURLConnection connection) throws IOException {
+        return new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static String readAll(BufferedReader reader) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int c = reader.read(); c != -1; c = reader.read()) {
+            text.append((char) c);
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void testStreamsLogAndReport() throws IOException {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test2.properties");
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        engine.setClock(new VirtualClock());
+        String expected = engine.run() + "\n\n" + engine.getStatistics().generateReport() + "\n";
+
+        try (GameServer server = new GameServer(0, 2)) {
+            HttpURLConnection connection = post(server, properties);
+            Assert.assertEquals(200, connection.getResponseCode());
+            try (BufferedReader reader = reader(connection)) {
+                Assert.assertEquals(expected, readAll(reader));
+            }
+            Assert.assertEquals(1, server.getGamesPlayed());
+        }
+    }
+
+    @Test
+    public void testRejectsMalformedProperties() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("movement.mode", "auto");
+        properties.setProperty("duration", "soon");
+        try (GameServer server = new GameServer(0, 1)) {
+            Assert.assertEquals(400, post(server, properties).getResponseCode());
+            Assert.assertEquals(0, server.getGamesPlayed());
+        }
+    }
+
+    /**
+     * A manual game on the real clock plays for its whole duration, so it holds the only slot while the
+     * second game is sent
+     */
+    @Test
+    public void testTurnsAwayGamesBeyondTheLimit() throws IOException {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        properties.setProperty("movement.mode", "manual");
+        properties.setProperty("duration", "1");
+        properties.setProperty("clock.mode", "real");
+        try (GameServer server = new GameServer(0, 1)) {
+            HttpURLConnection first = post(server, properties);
+            try (BufferedReader reader = reader(first)) {
+                Assert.assertNotNull(reader.readLine());
+                Assert.assertEquals(1, server.getRunningGames());
+
+                HttpURLConnection second = post(server, properties);
+                Assert.assertEquals(503, second.getResponseCode());
+                Assert.assertEquals(1, server.getGamesRejected());
+
+                Assert.assertTrue(readAll(reader).contains("Bombs placed: 0"));
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 import minemaze.MapGrid;
 import minemaze.MineMaze;
 import minemaze.PropertiesLoader;
+import minemaze.VirtualClock;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -14,6 +15,7 @@ public class GameTest {
         MapGrid grid = new MapGrid();
 
         MineMaze game = new MineMaze(properties, grid);
+        game.getEngine().setClock(new VirtualClock());
         String logResult = game.runApp(true);
         Assert.assertTrue(logResult.contains("You won"));
         LogParser parser = new LogParser();
@@ -28,6 +30,7 @@ public class GameTest {
         MapGrid grid = new MapGrid();
 
         MineMaze game = new MineMaze(properties, grid);
+        game.getEngine().setClock(new VirtualClock());
         String logResult = game.runApp(true);
         Assert.assertTrue(logResult.contains("You lost"));
         LogParser parser = new LogParser();
@@ -51,6 +54,7 @@ public class GameTest {
         MapGrid grid = new MapGrid();
 
         MineMaze game = new MineMaze(properties, grid);
+        game.getEngine().setClock(new VirtualClock());
         String logResult = game.runApp(true);
         LogParser parser = new LogParser();
 
@@ -86,6 +90,7 @@ public class GameTest {
         MapGrid grid = new MapGrid();
 
         MineMaze game = new MineMaze(properties, grid);
+        game.getEngine().setClock(new VirtualClock());
         String logResult = game.runApp(true);
         LogParser parser = new LogParser();
 
@@ -101,6 +106,7 @@ public class GameTest {
         MapGrid grid = new MapGrid();
 
         MineMaze game = new MineMaze(properties, grid);
+        game.getEngine().setClock(new VirtualClock());
         String logResult = game.runApp(true);
         LogParser parser = new LogParser();
 
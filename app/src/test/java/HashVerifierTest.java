@@ -0,0 +1,84 @@
+import minemaze.FileLogSink;
+import minemaze.GameEngine;
+import minemaze.HashVerifier;
+import minemaze.LogReader;
+import minemaze.MapGrid;
+import minemaze.PropertiesLoader;
+import minemaze.VirtualClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class HashVerifierTest {
+    /**
+     * The pusher steps up from 11-8 and back again, so the board is as it started
+     */
+    @Test
+    public void testHashDependsOnlyOnTheState() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        properties.setProperty("movement.mode", "manual");
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        long initialHash = engine.getStateHash();
+        engine.guidePusherToLocation(11, 7);
+        engine.tick();
+        Assert.assertNotEquals(initialHash, engine.getStateHash());
+        engine.guidePusherToLocation(11, 8);
+        engine.tick();
+        Assert.assertEquals(initialHash, engine.getStateHash());
+        Assert.assertEquals(initialHash, new GameEngine(properties, new MapGrid()).getStateHash());
+    }
+
+    @Test
+    public void testLoggedHashesMatchRecording() throws IOException {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test3.properties");
+        properties.setProperty(GameEngine.HASH_PROPERTY, "true");
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        engine.setClock(new VirtualClock());
+        Path logFile = Files.createTempFile("minemaze", ".log");
+        try {
+            FileLogSink sink = new FileLogSink(logFile);
+            engine.setLogSink(sink);
+            engine.run();
+            sink.close();
+
+            long[] trace = HashVerifier.readTrace(logFile);
+            Assert.assertEquals(engine.getGameTick(), trace.length);
+            Assert.assertEquals(engine.getStateHash(), trace[trace.length - 1]);
+            Assert.assertArrayEquals(trace, HashVerifier.record(properties, null, 1));
+        } finally {
+            Files.delete(logFile);
+        }
+    }
+
+    /**
+     * With one bomb less the third bomb is refused, and the first tick whose log line differs is the first
+     * tick whose hash differs
+     */
+    @Test
+    public void testFindsFirstDivergentTick() throws IOException {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test3.properties");
+        final Properties fewerBombs = PropertiesLoader.loadPropertiesFile("properties/test3.properties");
+        fewerBombs.setProperty("bomb.max", "2");
+        Assert.assertEquals(HashVerifier.NO_DIVERGENCE, HashVerifier.firstDivergentTick(
+                HashVerifier.record(properties, null, 1), HashVerifier.record(properties, null, 1)));
+
+        LogReader expected = LogReader.of(runHeadless(properties));
+        LogReader actual = LogReader.of(runHeadless(fewerBombs));
+        int tick = 0;
+        while (expected.getLine(tick).equals(actual.getLine(tick))) {
+            tick++;
+        }
+        Assert.assertEquals(tick + 1, HashVerifier.firstDivergentTick(
+                HashVerifier.record(properties, null, 1), HashVerifier.record(fewerBombs, null, 1)));
+    }
+
+    private static String runHeadless(Properties properties) {
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        engine.setClock(new VirtualClock());
+        return engine.run();
+    }
+}
@@ -1,6 +1,15 @@
+import minemaze.LogReader;
+
 public class LogParser {
+    private String indexedLog;
+    private LogReader reader;
+
     public String getLogLine(String logResult, int movementIndex) {
-        String[]logs = logResult.split("\n");
-        return logs[movementIndex];
+        // Index the log once and reuse it for every line looked up in the same log
+        if (logResult != indexedLog) {
+            reader = LogReader.of(logResult);
+            indexedLog = logResult;
+        }
+        return reader.getLine(movementIndex);
     }
 }
@@ -0,0 +1,59 @@
+import minemaze.ElementType;
+import minemaze.GameEngine;
+import minemaze.LogReader;
+import minemaze.MapGrid;
+import minemaze.PropertiesLoader;
+import minemaze.VirtualClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class LogReaderTest {
+    private String runGame(String propertiesPath) {
+        final Properties properties = PropertiesLoader.loadPropertiesFile(propertiesPath);
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        engine.setClock(new VirtualClock());
+        return engine.run();
+    }
+
+    @Test
+    public void testLinesMatchSplit() {
+        String logResult = runGame("properties/test1.properties");
+        String[] lines = logResult.split("\n");
+        LogReader reader = LogReader.of(logResult);
+        Assert.assertEquals(lines.length, reader.getLineCount());
+        Assert.assertEquals(lines.length - 1, reader.getTickCount());
+        for (int i = 0; i < lines.length; i++) {
+            Assert.assertEquals(lines[i], reader.getLine(i));
+        }
+        Assert.assertEquals("You won", reader.getOutcome());
+    }
+
+    @Test
+    public void testParseLocations() {
+        LogReader reader = LogReader.of(runGame("properties/test1.properties"));
+        Assert.assertEquals(1, reader.getMovementIndex(0));
+        Assert.assertArrayEquals(new int[]{11, 7}, reader.getLocations(0, ElementType.PUSHER));
+        Assert.assertArrayEquals(new int[]{4, 7, 5, 2, 7, 5}, reader.getLocations(0, ElementType.ORE));
+        Assert.assertArrayEquals(new int[]{7, 3}, reader.getLocations(0, ElementType.BOMBER));
+        Assert.assertArrayEquals(new int[0], reader.getLocations(0, ElementType.BOMB_MARKER));
+        Assert.assertArrayEquals(new int[]{7, 5}, reader.getLocations(82, ElementType.ORE));
+    }
+
+    @Test
+    public void testMappedFile() throws Exception {
+        String logResult = runGame("properties/test2.properties");
+        Path logFile = Files.createTempFile("minemaze", ".log");
+        Files.write(logFile, logResult.getBytes(StandardCharsets.UTF_8));
+        try (LogReader reader = LogReader.open(logFile)) {
+            String[] lines = logResult.split("\n");
+            Assert.assertEquals(lines.length, reader.getLineCount());
+            Assert.assertEquals(lines[82], reader.getLine(82));
+            Assert.assertEquals("You lost", reader.getOutcome());
+        }
+    }
+}
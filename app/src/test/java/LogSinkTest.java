@@ -0,0 +1,66 @@
+import minemaze.FileLogSink;
+import minemaze.GameEngine;
+import minemaze.MapGrid;
+import minemaze.PropertiesLoader;
+import minemaze.StreamLogSink;
+import minemaze.VirtualClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class LogSinkTest {
+    private GameEngine createEngine() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        engine.setClock(new VirtualClock());
+        return engine;
+    }
+
+    @Test
+    public void testStreamMatchesMemoryLog() {
+        String expected = createEngine().run();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        GameEngine engine = createEngine();
+        engine.setLogSink(new StreamLogSink(output, false));
+        Assert.assertNull(engine.run());
+        Assert.assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLinesStreamedAsTicksEnd() {
+        int[] newlines = new int[1];
+        OutputStream counter = new OutputStream() {
+            @Override
+            public void write(int b) {
+                if (b == '\n') {
+                    newlines[0]++;
+                }
+            }
+        };
+        GameEngine engine = createEngine();
+        engine.setLogSink(new StreamLogSink(counter, true));
+        engine.tick();
+        engine.tick();
+        Assert.assertEquals(2, newlines[0]);
+    }
+
+    @Test
+    public void testFileSink() throws Exception {
+        String expected = createEngine().run();
+
+        Path logFile = Files.createTempFile("minemaze", ".log");
+        FileLogSink sink = new FileLogSink(logFile);
+        GameEngine engine = createEngine();
+        engine.setLogSink(sink);
+        engine.run();
+        sink.close();
+        Assert.assertEquals(expected, new String(Files.readAllBytes(logFile), StandardCharsets.UTF_8));
+    }
+}
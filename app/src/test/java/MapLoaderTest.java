@@ -0,0 +1,107 @@
+import minemaze.ElementType;
+import minemaze.GameEngine;
+import minemaze.MapGrid;
+import minemaze.MapLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class MapLoaderTest {
+    private static void assertSameMap(MapGrid expected, MapGrid actual) {
+        Assert.assertEquals(expected.getNbHorzCells(), actual.getNbHorzCells());
+        Assert.assertEquals(expected.getNbVertCells(), actual.getNbVertCells());
+        Assert.assertEquals(expected.getNumberOfTargets(), actual.getNumberOfTargets());
+        for (int y = 0; y < expected.getNbVertCells(); y++) {
+            for (int x = 0; x < expected.getNbHorzCells(); x++) {
+                Assert.assertEquals(expected.getCell(x, y), actual.getCell(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testTextMapFromProperties() throws IOException {
+        Path mapFile = Files.createTempFile("minemaze", ".map");
+        try {
+            Files.write(mapFile, MapLoader.toText(new MapGrid()).getBytes(StandardCharsets.US_ASCII));
+            Properties properties = new Properties();
+            properties.setProperty(MapLoader.MAP_FILE_PROPERTY, mapFile.toString());
+            assertSameMap(new MapGrid(), MapLoader.fromProperties(properties));
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+
+    @Test
+    public void testBinaryMap() throws IOException {
+        Path mapFile = Files.createTempFile("minemaze", ".bin");
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            MapLoader.writeBinary(new MapGrid(), output);
+            Files.write(mapFile, output.toByteArray());
+            assertSameMap(new MapGrid(), MapLoader.load(mapFile));
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+
+    @Test
+    public void testShortLinesArePadded() throws IOException {
+        Path mapFile = Files.createTempFile("minemaze", ".map");
+        try {
+            Files.write(mapFile, "xxxx\r\nxPo\r\nxxxx\r\n".getBytes(StandardCharsets.US_ASCII));
+            MapGrid grid = MapLoader.load(mapFile);
+            Assert.assertEquals(4, grid.getNbHorzCells());
+            Assert.assertEquals(3, grid.getNbVertCells());
+            Assert.assertEquals(ElementType.PUSHER, grid.getCell(1, 1));
+            Assert.assertEquals(ElementType.OUTSIDE, grid.getCell(3, 1));
+            Assert.assertEquals(1, grid.getNumberOfTargets());
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+
+    @Test
+    public void testUnknownElement() throws IOException {
+        Path mapFile = Files.createTempFile("minemaze", ".map");
+        try {
+            Files.write(mapFile, "xxx\nxPz\n".getBytes(StandardCharsets.US_ASCII));
+            MapLoader.load(mapFile);
+            Assert.fail("expected an error for 'z'");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("'z' at 2-1"));
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+
+    private static GameEngine engineOnMap(String map, String fuelLocations) throws IOException {
+        Path mapFile = Files.createTempFile("minemaze", ".map");
+        try {
+            Files.write(mapFile, map.getBytes(StandardCharsets.US_ASCII));
+            Properties properties = new Properties();
+            properties.setProperty("movement.mode", "manual");
+            properties.setProperty("duration", "1");
+            properties.setProperty("simulationPeriod", "50");
+            properties.setProperty("ores.winning", "1");
+            properties.setProperty("bomb.max", "0");
+            properties.setProperty("fuel.locations", fuelLocations);
+            return new GameEngine(properties, MapLoader.load(mapFile));
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+
+    @Test
+    public void testFuelDrawnOnMapIsPlayed() throws IOException {
+        GameEngine drawn = engineOnMap("xxxxx\nxP.fx\nxxxxx\n", "");
+        GameEngine listed = engineOnMap("xxxxx\nxP..x\nxxxxx\n", "3-1");
+        Assert.assertEquals(listed.getStateHash(), drawn.getStateHash());
+        Assert.assertNotEquals(engineOnMap("xxxxx\nxP..x\nxxxxx\n", "").getStateHash(), drawn.getStateHash());
+    }
+}
@@ -0,0 +1,67 @@
+import minemaze.CompiledScript;
+import minemaze.GameEngine;
+import minemaze.MapGrid;
+import minemaze.MovementScript;
+import minemaze.PropertiesLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class MovementScriptTest {
+    @Test
+    public void testCompile() {
+        CompiledScript script = CompiledScript.compile(";3-4;Bomb;; 12-7 ;;", "test");
+        Assert.assertEquals(5, script.size());
+        Assert.assertEquals(MovementScript.WAIT, script.next());
+        Assert.assertEquals(MovementScript.MOVE, script.next());
+        Assert.assertEquals(3, script.getX());
+        Assert.assertEquals(4, script.getY());
+        Assert.assertEquals(MovementScript.BOMB, script.next());
+        Assert.assertEquals(MovementScript.WAIT, script.next());
+        Assert.assertEquals(MovementScript.MOVE, script.next());
+        Assert.assertEquals(12, script.getX());
+        Assert.assertEquals(7, script.getY());
+        Assert.assertEquals(MovementScript.END, script.next());
+        Assert.assertEquals(0, CompiledScript.compile("", "test").size());
+    }
+
+    @Test
+    public void testMalformedStep() {
+        try {
+            CompiledScript.compile("1-2;3-x;4-5", "pusher.movements");
+            Assert.fail("expected an error for 3-x");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("pusher.movements step 2: expected x-y, Bomb or nothing, found '3-x'", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testStreamedScriptMatchesProperty() throws IOException {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        Path scriptFile = Files.createTempFile("minemaze", ".script");
+        try {
+            // One step per line, the way a generator would write a long script
+            String script = properties.getProperty("pusher.movements").replace(";", ";\n");
+            Files.write(scriptFile, script.getBytes(StandardCharsets.US_ASCII));
+            Properties streamed = new Properties();
+            streamed.putAll(properties);
+            streamed.remove("pusher.movements");
+            streamed.setProperty("pusher.movements" + MovementScript.FILE_SUFFIX, scriptFile.toString());
+
+            GameEngine expected = new GameEngine(properties, new MapGrid());
+            GameEngine actual = new GameEngine(streamed, new MapGrid());
+            while (expected.isRunning()) {
+                expected.tick();
+                actual.tick();
+            }
+            Assert.assertEquals(expected.finish(), actual.finish());
+        } finally {
+            Files.delete(scriptFile);
+        }
+    }
+}
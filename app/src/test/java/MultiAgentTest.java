@@ -0,0 +1,183 @@
+import minemaze.ElementType;
+import minemaze.GameEngine;
+import minemaze.LogReader;
+import minemaze.MapGrid;
+import minemaze.MapLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Random;
+
+public class MultiAgentTest {
+    private static MapGrid loadMap(String text) throws IOException {
+        Path mapFile = Files.createTempFile("minemaze", ".map");
+        try {
+            Files.write(mapFile, text.getBytes(StandardCharsets.US_ASCII));
+            return MapLoader.load(mapFile);
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+
+    private static Properties properties() {
+        Properties properties = new Properties();
+        properties.setProperty("movement.mode", "auto");
+        properties.setProperty("duration", "100");
+        properties.setProperty("simulationPeriod", "50");
+        properties.setProperty("ores.winning", "1");
+        properties.setProperty("bomb.max", "1");
+        return properties;
+    }
+
+    /**
+     * Both pushers step into the ore at 3-2 in the first tick. The first pusher in map order wins and pushes
+     * it right; the second waits, and keeps waiting while the first stands in the cell.
+     */
+    @Test
+    public void testFirstPusherWinsContestedOre() throws IOException {
+        MapGrid grid = loadMap("xxxxxx\nx....x\nx.P..x\nx..P.x\nx....x\nxxxxxx\n");
+        Properties properties = properties();
+        properties.setProperty("ore.locations", "3-2");
+        properties.setProperty("pusher.movements", "3-2");
+        properties.setProperty("pusher.2.movements", "3-2");
+        GameEngine engine = new GameEngine(properties, grid);
+        Assert.assertEquals(2, engine.getPusherCount());
+        engine.tick();
+        engine.tick();
+
+        LogReader reader = LogReader.of(engine.getLogResult());
+        Assert.assertArrayEquals(new int[]{3, 2, 3, 3}, reader.getLocations(0, ElementType.PUSHER));
+        Assert.assertArrayEquals(new int[]{4, 2}, reader.getLocations(0, ElementType.ORE));
+        Assert.assertArrayEquals(new int[]{3, 2, 3, 3}, reader.getLocations(1, ElementType.PUSHER));
+        Assert.assertEquals(1, engine.getStatistics().getPusherMoves());
+    }
+
+    /**
+     * Two pushers meet head-on in the top row of a corridor two cells high. After waiting
+     * {@link GameEngine#MAX_WAIT_TICKS} ticks for each other one steps into the bottom row and both get
+     * through.
+     */
+    @Test
+    public void testHeadOnPushersPassEachOther() throws IOException {
+        MapGrid grid = loadMap("xxxxxxxx\nxP....Px\nx......x\nxxxxxxxx\n");
+        Properties properties = properties();
+        properties.setProperty("pusher.movements", "6-1");
+        properties.setProperty("pusher.2.movements", "1-1");
+        GameEngine engine = new GameEngine(properties, grid);
+        for (int tick = 0; tick < 20; tick++) {
+            engine.tick();
+        }
+
+        LogReader reader = LogReader.of(engine.getLogResult());
+        Assert.assertArrayEquals(new int[]{6, 1, 1, 1}, reader.getLocations(19, ElementType.PUSHER));
+    }
+
+    /**
+     * Scripts that give the same waypoint every tick, as the bundled ones do, still let a waiting pusher
+     * plan around the other
+     */
+    @Test
+    public void testHeadOnPushersWithRepeatedWaypointsPassEachOther() throws IOException {
+        MapGrid grid = loadMap("xxxxxxxx\nxP....Px\nx......x\nxxxxxxxx\n");
+        Properties properties = properties();
+        properties.setProperty("pusher.movements", String.join(";", Collections.nCopies(30, "6-1")));
+        properties.setProperty("pusher.2.movements", String.join(";", Collections.nCopies(30, "1-1")));
+        GameEngine engine = new GameEngine(properties, grid);
+        for (int tick = 0; tick < 25; tick++) {
+            engine.tick();
+        }
+
+        LogReader reader = LogReader.of(engine.getLogResult());
+        Assert.assertArrayEquals(new int[]{6, 1, 1, 1}, reader.getLocations(24, ElementType.PUSHER));
+    }
+
+    /**
+     * A pusher whose way along the top row is held by one that stands still goes around it through the
+     * bottom row
+     */
+    @Test
+    public void testPusherGoesAroundIdlePusher() throws IOException {
+        MapGrid grid = loadMap("xxxxxxx\nxP.P..x\nx.....x\nxxxxxxx\n");
+        Properties properties = properties();
+        properties.setProperty("pusher.movements", "5-1");
+        GameEngine engine = new GameEngine(properties, grid);
+        for (int tick = 0; tick < 12; tick++) {
+            engine.tick();
+        }
+
+        LogReader reader = LogReader.of(engine.getLogResult());
+        Assert.assertArrayEquals(new int[]{2, 1, 3, 1}, reader.getLocations(1, ElementType.PUSHER));
+        Assert.assertArrayEquals(new int[]{5, 1, 3, 1}, reader.getLocations(11, ElementType.PUSHER));
+    }
+
+    @Test
+    public void testEachBomberHasItsOwnScriptAndBombs() throws IOException {
+        MapGrid grid = loadMap("xxxxxx\nxB..Bx\nx....x\nxxxxxx\n");
+        Properties properties = properties();
+        properties.setProperty("bomber.movements", "Bomb;Bomb");
+        properties.setProperty("bomber.2.movements", "4-2");
+        GameEngine engine = new GameEngine(properties, grid);
+        engine.tick();
+        engine.tick();
+
+        LogReader reader = LogReader.of(engine.getLogResult());
+        Assert.assertArrayEquals(new int[]{1, 1, 4, 2}, reader.getLocations(1, ElementType.BOMBER));
+        Assert.assertArrayEquals(new int[]{1, 1}, reader.getLocations(1, ElementType.BOMB_MARKER));
+        Assert.assertEquals(0, engine.getBombsLeft(0));
+        Assert.assertEquals(1, engine.getBombsLeft(1));
+    }
+
+    /**
+     * A fleet of 247 pushers crossing an open field gives the same log whatever the number of workers
+     */
+    @Test
+    public void testParallelResolutionIsDeterministic() throws IOException {
+        int size = 40;
+        StringBuilder map = new StringBuilder();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean isBorder = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+                boolean isPusher = !isBorder && y % 2 == 1 && x % 3 == 1;
+                map.append(isBorder ? 'x' : isPusher ? 'P' : '.');
+            }
+            map.append('\n');
+        }
+        MapGrid grid = loadMap(map.toString());
+
+        Properties properties = properties();
+        Random random = new Random(30006);
+        StringBuilder ores = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            ores.append(2 + random.nextInt(size - 4)).append('-').append(2 * (1 + random.nextInt(size / 2 - 2))).append(';');
+        }
+        properties.setProperty("ore.locations", ores.toString());
+        for (int pusher = 0; pusher < 247; pusher++) {
+            StringBuilder movements = new StringBuilder();
+            for (int step = 0; step < 40; step++) {
+                movements.append(step % 8 == 0 ? (1 + random.nextInt(size - 2)) + "-" + (1 + random.nextInt(size - 2)) : "")
+                        .append(';');
+            }
+            properties.setProperty(pusher == 0 ? "pusher.movements" : "pusher." + (pusher + 1) + ".movements",
+                    movements.toString());
+        }
+
+        GameEngine sequential = new GameEngine(properties, grid);
+        sequential.setWorkers(1);
+        GameEngine parallel = new GameEngine(properties, grid);
+        parallel.setWorkers(4);
+        Assert.assertEquals(247, parallel.getPusherCount());
+        Assert.assertEquals(4, parallel.getWorkers());
+        for (int tick = 0; tick < 60; tick++) {
+            sequential.tick();
+            parallel.tick();
+        }
+        Assert.assertEquals(sequential.getLogResult(), parallel.getLogResult());
+        Assert.assertTrue(sequential.getStatistics().getPusherMoves() > 1000);
+    }
+}
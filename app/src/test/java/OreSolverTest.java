@@ -0,0 +1,46 @@
+import minemaze.GameEngine;
+import minemaze.MapGrid;
+import minemaze.OreSolver;
+import minemaze.PropertiesLoader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+
+public class OreSolverTest {
+    private String solve(Properties properties, int threads) {
+        OreSolver solver = OreSolver.forEngine(new GameEngine(properties, new MapGrid()));
+        solver.setThreads(threads);
+        return solver.solve(Integer.parseInt(properties.getProperty("ores.winning")));
+    }
+
+    @Test
+    public void testSolvedScriptWins() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        String movements = solve(properties, 4);
+        Assert.assertNotNull(movements);
+
+        Properties solved = new Properties();
+        solved.putAll(properties);
+        solved.setProperty("pusher.movements", movements);
+        GameEngine engine = new GameEngine(solved, new MapGrid());
+        while (engine.isRunning()) {
+            engine.tick();
+        }
+        Assert.assertTrue(engine.finish().endsWith("You won"));
+        Assert.assertEquals(movements.split(";").length, engine.getGameTick());
+    }
+
+    @Test
+    public void testSameScriptForAnyThreadCount() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        Assert.assertEquals(solve(properties, 1), solve(properties, 4));
+    }
+
+    @Test
+    public void testNotEnoughOres() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test1.properties");
+        OreSolver solver = OreSolver.forEngine(new GameEngine(properties, new MapGrid()));
+        Assert.assertNull(solver.solve(4));
+    }
+}
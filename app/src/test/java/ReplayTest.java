@@ -0,0 +1,108 @@
+import minemaze.GameEngine;
+import minemaze.MapGrid;
+import minemaze.MemoryLogSink;
+import minemaze.PropertiesLoader;
+import minemaze.ReplayConverter;
+import minemaze.ReplayEncoder;
+import minemaze.VirtualClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Properties;
+
+public class ReplayTest {
+    private GameEngine createEngine(String propertiesPath) {
+        return createEngine(PropertiesLoader.loadPropertiesFile(propertiesPath));
+    }
+
+    private GameEngine createEngine(Properties properties) {
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        engine.setClock(new VirtualClock());
+        return engine;
+    }
+
+    @Test
+    public void testReplayReproducesTextLog() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            String propertiesPath = "properties/test" + i + ".properties";
+            String expected = createEngine(propertiesPath).run();
+
+            ByteArrayOutputStream replay = new ByteArrayOutputStream();
+            GameEngine engine = createEngine(propertiesPath);
+            ReplayEncoder encoder = new ReplayEncoder(replay, engine);
+            engine.setLogSink(encoder);
+            engine.run();
+            encoder.close();
+
+            MemoryLogSink converted = new MemoryLogSink();
+            ReplayConverter.convert(new ByteArrayInputStream(replay.toByteArray()), converted);
+            Assert.assertEquals(propertiesPath, expected, converted.getLogResult());
+            Assert.assertTrue(replay.size() * 5 < expected.length());
+        }
+    }
+
+    private static byte[] record(GameEngine engine) throws IOException {
+        ByteArrayOutputStream replay = new ByteArrayOutputStream();
+        ReplayEncoder encoder = new ReplayEncoder(replay, engine);
+        engine.setLogSink(encoder);
+        engine.run();
+        encoder.close();
+        return replay.toByteArray();
+    }
+
+    /**
+     * A replay started mid-game carries the movement index it started from
+     */
+    @Test
+    public void testReplayStartedMidGame() throws Exception {
+        String expected = createEngine("properties/test1.properties").run();
+        GameEngine engine = createEngine("properties/test1.properties");
+        for (int i = 0; i < 10; i++) {
+            engine.tick();
+        }
+        MemoryLogSink converted = new MemoryLogSink();
+        ReplayConverter.convert(new ByteArrayInputStream(record(engine)), converted);
+        Assert.assertTrue(expected.endsWith(converted.getLogResult()));
+        Assert.assertTrue(converted.getLogResult().startsWith("11#"));
+    }
+
+    /**
+     * A game logged with log.hash=true comes back with the same state hash on every line
+     */
+    @Test
+    public void testReplayReproducesHashedLog() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            Properties properties = PropertiesLoader.loadPropertiesFile("properties/test" + i + ".properties");
+            properties.setProperty(GameEngine.HASH_PROPERTY, "true");
+            String expected = createEngine(properties).run();
+            Assert.assertTrue(expected.contains("#Hash:"));
+
+            MemoryLogSink converted = new MemoryLogSink();
+            ReplayConverter.convert(new ByteArrayInputStream(record(createEngine(properties))), converted);
+            Assert.assertEquals(expected, converted.getLogResult());
+        }
+    }
+
+    @Test
+    public void testCorruptReplayIsAnIOException() throws Exception {
+        byte[] replay = record(createEngine("properties/test3.properties"));
+        // Magic, version, width and height take 7 bytes; the first cell follows
+        byte[] badCell = replay.clone();
+        badCell[7] = (byte) 200;
+        assertUnreadable(badCell, "bad actor type");
+        assertUnreadable(Arrays.copyOf(replay, replay.length / 2), null);
+    }
+
+    private static void assertUnreadable(byte[] replay, String message) {
+        try {
+            ReplayConverter.convert(new ByteArrayInputStream(replay), new MemoryLogSink());
+            Assert.fail("Replay was read");
+        } catch (IOException e) {
+            Assert.assertTrue(e.toString(), message == null || e.getMessage().contains(message));
+        }
+    }
+}
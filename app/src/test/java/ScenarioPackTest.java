@@ -0,0 +1,122 @@
+import minemaze.BatchRunner;
+import minemaze.GameEngine;
+import minemaze.Scenario;
+import minemaze.ScenarioPack;
+import minemaze.VirtualClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class ScenarioPackTest {
+    private static final Path SCENARIOS = Paths.get("src/test/resources/properties");
+    private static final String MAP = "xxxxxx\nxP...x\nx.*.ox\nxxxxxx\n";
+    private static final String MAP_SCENARIO = "movement.mode=auto\nduration=2\nsimulationPeriod=50\n" +
+            "ores.winning=1\nbomb.max=0\nmap.file=maps/small.map\npusher.movements=2-2;3-2\n";
+
+    private static Path zipPack() throws IOException {
+        Path zip = Files.createTempFile("pack", ScenarioPack.ZIP_EXTENSION);
+        try (OutputStream file = Files.newOutputStream(zip); ZipOutputStream output = new ZipOutputStream(file)) {
+            for (Path scenario : BatchRunner.collectScenarios(Collections.singletonList(SCENARIOS))) {
+                output.putNextEntry(new ZipEntry("pack/" + scenario.getFileName()));
+                output.write(Files.readAllBytes(scenario));
+            }
+            output.putNextEntry(new ZipEntry("pack/small.properties"));
+            output.write(MAP_SCENARIO.getBytes(StandardCharsets.ISO_8859_1));
+            output.putNextEntry(new ZipEntry("pack/maps/small.map"));
+            output.write(MAP.getBytes(StandardCharsets.US_ASCII));
+            output.putNextEntry(new ZipEntry("pack/broken.properties"));
+            output.write("movement.mode=auto\nduration=soon\n".getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return zip;
+    }
+
+    @Test
+    public void testDirectoryPackPlaysLikeFiles() throws IOException {
+        ScenarioPack pack = ScenarioPack.load(SCENARIOS);
+        Assert.assertEquals(5, pack.size());
+        Assert.assertEquals("test1.properties", pack.getEntries().get(0).getName());
+
+        List<BatchRunner.Result> expected = new BatchRunner(2)
+                .run(BatchRunner.collectScenarios(Collections.singletonList(SCENARIOS)));
+        List<BatchRunner.Result> actual = new BatchRunner(2).run(pack);
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getLogResult(), actual.get(i).getLogResult());
+        }
+    }
+
+    /**
+     * The zip holds the same five scenarios as the directory, so they come from the cache, plus one with its
+     * map in the pack and one that does not parse
+     */
+    @Test
+    public void testZipPackSharesCachedScenarios() throws IOException {
+        ScenarioPack directory = ScenarioPack.load(SCENARIOS);
+        Path zip = zipPack();
+        try {
+            ScenarioPack pack = ScenarioPack.load(zip);
+            Assert.assertEquals(7, pack.size());
+            ScenarioPack.Entry broken = pack.getEntries().get(0);
+            Assert.assertEquals("pack/broken.properties", broken.getName());
+            Assert.assertNull(broken.getScenario());
+            Assert.assertTrue(broken.getError(), broken.getError().contains("duration"));
+
+            Scenario small = pack.getEntries().get(1).getScenario();
+            Assert.assertEquals(6, small.getMap().getNbHorzCells());
+            for (int i = 0; i < directory.size(); i++) {
+                Assert.assertSame(directory.getEntries().get(i).getScenario(),
+                        pack.getEntries().get(i + 2).getScenario());
+            }
+            int cached = ScenarioPack.getCacheSize();
+            Assert.assertSame(small, ScenarioPack.load(zip).getEntries().get(1).getScenario());
+            Assert.assertEquals(cached, ScenarioPack.getCacheSize());
+        } finally {
+            Files.delete(zip);
+        }
+    }
+
+    /**
+     * A map outside the pack is part of the cache key too, so a changed map is parsed again
+     */
+    @Test
+    public void testMapOutsideThePackInvalidatesTheCache() throws IOException {
+        Path base = Files.createTempDirectory("packs");
+        Path pack = Files.createDirectories(base.resolve("pack"));
+        Path scenario = pack.resolve("small.properties");
+        Path map = Files.createDirectories(base.resolve("maps")).resolve("small.map");
+        try {
+            Files.write(scenario, MAP_SCENARIO.replace("maps/small.map", "../maps/small.map")
+                    .getBytes(StandardCharsets.ISO_8859_1));
+            Files.write(map, MAP.getBytes(StandardCharsets.US_ASCII));
+            Assert.assertEquals(6, ScenarioPack.load(pack).getEntries().get(0).getScenario().getMap().getNbHorzCells());
+
+            Files.write(map, MAP.replace("x\n", "xx\n").getBytes(StandardCharsets.US_ASCII));
+            Assert.assertEquals(7, ScenarioPack.load(pack).getEntries().get(0).getScenario().getMap().getNbHorzCells());
+        } finally {
+            Files.delete(scenario);
+            Files.delete(map);
+            Files.delete(pack);
+            Files.delete(map.getParent());
+            Files.delete(base);
+        }
+    }
+
+    @Test
+    public void testScenarioStartsManyGames() throws IOException {
+        Scenario scenario = ScenarioPack.load(SCENARIOS).getEntries().get(2).getScenario();
+        GameEngine first = new GameEngine(scenario);
+        first.setClock(new VirtualClock());
+        GameEngine second = new GameEngine(scenario);
+        second.setClock(new VirtualClock());
+        Assert.assertEquals(first.run(), second.run());
+    }
+}
@@ -0,0 +1,106 @@
+import minemaze.GameEngine;
+import minemaze.MapGrid;
+import minemaze.MapLoader;
+import minemaze.MemoryLogSink;
+import minemaze.PropertiesLoader;
+import minemaze.VirtualClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class SnapshotTest {
+    private static GameEngine newEngine(String propertiesPath) {
+        final Properties properties = PropertiesLoader.loadPropertiesFile(propertiesPath);
+        GameEngine engine = new GameEngine(properties, new MapGrid());
+        engine.setClock(new VirtualClock());
+        return engine;
+    }
+
+    private static String runToEnd(GameEngine engine) {
+        engine.setLogSink(new MemoryLogSink());
+        return engine.run();
+    }
+
+    /**
+     * test3 places its bombs in ticks 11 and 22, so a snapshot after tick 12 holds a pending fuse, a path in
+     * progress and a changed board. Every restore replays the rest of the game exactly.
+     */
+    @Test
+    public void testRestoreReplaysTheRestOfTheGame() {
+        GameEngine engine = newEngine("properties/test3.properties");
+        for (int i = 0; i < 12; i++) {
+            engine.tick();
+        }
+        GameEngine.Snapshot snapshot = engine.snapshot();
+        Assert.assertEquals(12, snapshot.getGameTick());
+        Assert.assertEquals(1, engine.getPendingEvents());
+        String rest = runToEnd(engine);
+
+        engine.restore(snapshot);
+        Assert.assertEquals(12, engine.getGameTick());
+        Assert.assertEquals(1, engine.getPendingEvents());
+        Assert.assertEquals(rest, runToEnd(engine));
+        engine.restore(snapshot);
+        Assert.assertEquals(rest, runToEnd(engine));
+    }
+
+    /**
+     * Taking a snapshot leaves the engine as it was: its state hash, pending bomb, paths and the rest of
+     * its game are those of an engine that was never snapshot
+     */
+    @Test
+    public void testSnapshotLeavesTheEngineUnchanged() {
+        GameEngine engine = newEngine("properties/test3.properties");
+        GameEngine untouched = newEngine("properties/test3.properties");
+        for (int i = 0; i < 12; i++) {
+            engine.tick();
+            untouched.tick();
+        }
+        long hash = engine.getStateHash();
+        String report = engine.getStatistics().generateReport();
+        for (int i = 0; i < 3; i++) {
+            engine.snapshot();
+        }
+
+        Assert.assertEquals(hash, engine.getStateHash());
+        Assert.assertEquals(report, engine.getStatistics().generateReport());
+        Assert.assertEquals(untouched.getPendingEvents(), engine.getPendingEvents());
+        Assert.assertEquals(untouched.getTicksToNextDetonation(), engine.getTicksToNextDetonation());
+        Assert.assertEquals(untouched.getBombsLeft(), engine.getBombsLeft());
+        Assert.assertEquals(runToEnd(untouched), runToEnd(engine));
+    }
+
+    @Test
+    public void testRestoreIntoAnotherEngine() {
+        GameEngine engine = newEngine("properties/test3.properties");
+        for (int i = 0; i < 20; i++) {
+            engine.tick();
+        }
+        GameEngine.Snapshot snapshot = engine.snapshot();
+        String rest = runToEnd(engine);
+
+        GameEngine copy = newEngine("properties/test3.properties");
+        copy.restore(snapshot);
+        Assert.assertEquals(rest, runToEnd(copy));
+        Assert.assertEquals(engine.getStatistics().generateReport(), copy.getStatistics().generateReport());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRestoreRejectsAnotherMap() throws IOException {
+        GameEngine engine = newEngine("properties/test3.properties");
+        GameEngine.Snapshot snapshot = engine.snapshot();
+        Path mapFile = Files.createTempFile("minemaze", ".map");
+        try {
+            Files.write(mapFile, "xxxxx\nxP..x\nxxxxx\n".getBytes(StandardCharsets.US_ASCII));
+            Properties properties = PropertiesLoader.loadPropertiesFile("properties/test3.properties");
+            new GameEngine(properties, MapLoader.load(mapFile)).restore(snapshot);
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import minemaze.ChunkedMapGrid;
+import minemaze.GameEngine;
+import minemaze.MapGrid;
+import minemaze.MapLoader;
+import minemaze.PropertiesLoader;
+import minemaze.StaticMap;
+import minemaze.VirtualClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class StaticMapTest {
+    @Test
+    public void testGridsWithTheSameMapShareIt() throws IOException {
+        StaticMap map = new MapGrid().getStaticMap();
+        Assert.assertSame(map, new MapGrid().getStaticMap());
+
+        Path mapFile = Files.createTempFile("minemaze", ".bin");
+        try {
+            try (OutputStream output = Files.newOutputStream(mapFile)) {
+                MapLoader.writeBinary(new MapGrid(), output);
+            }
+            try (ChunkedMapGrid grid = ChunkedMapGrid.open(mapFile, 4, 2);
+                 ChunkedMapGrid other = ChunkedMapGrid.open(mapFile, 4, 2)) {
+                StaticMap chunked = grid.getStaticMap();
+                Assert.assertSame(chunked, other.getStaticMap());
+                Assert.assertTrue(chunked.isBorder(0, 5));
+                Assert.assertEquals(map.getNeighbours(1, 6), chunked.getNeighbours(1, 6));
+                // Building it reads the file directly and decodes no tiles
+                Assert.assertEquals(0, grid.getLoadedTiles());
+                Assert.assertEquals(0, grid.getTileMisses());
+            }
+        } finally {
+            Files.delete(mapFile);
+        }
+    }
+
+    @Test
+    public void testBordersAndNeighbours() {
+        StaticMap map = new MapGrid().getStaticMap();
+        Assert.assertTrue(map.isBorder(0, 5));
+        Assert.assertTrue(map.isBorder(-1, 5));
+        Assert.assertFalse(map.isBorder(1, 6));
+        // 1-6 has border to the left (0-6) and above (1-5)
+        Assert.assertEquals(StaticMap.RIGHT | StaticMap.DOWN, map.getNeighbours(1, 6));
+    }
+
+    @Test
+    public void testGamesOnASharedMapPlayAlone() {
+        final Properties properties = PropertiesLoader.loadPropertiesFile("properties/test3.properties");
+        MapGrid grid = new MapGrid();
+        GameEngine first = new GameEngine(properties, grid);
+        first.setClock(new VirtualClock());
+        GameEngine second = new GameEngine(properties, grid);
+        second.setClock(new VirtualClock());
+        String log = first.run();
+        Assert.assertEquals(log, second.run());
+    }
+}
@@ -0,0 +1,64 @@
+import minemaze.TimingWheel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimingWheelTest {
+    private final List<String> fired = new ArrayList<>();
+    private final TimingWheel.Listener recorder = (kind, payload) -> fired.add(kind + ":" + payload);
+
+    @Test
+    public void testEventsFireInTheirTick() {
+        TimingWheel wheel = new TimingWheel(4);
+        wheel.schedule(3, 0, 1);
+        wheel.schedule(2, 0, 2);
+        wheel.schedule(3, 1, 3);
+        // More than a turn of the wheel away, in the same slot as tick 3
+        wheel.schedule(11, 0, 4);
+
+        wheel.advanceTo(2, recorder);
+        Assert.assertEquals(List.of("0:2"), fired);
+        wheel.advanceTo(3, recorder);
+        Assert.assertEquals(List.of("0:2", "0:1", "1:3"), fired);
+        Assert.assertEquals(1, wheel.size());
+        wheel.advanceTo(11, recorder);
+        Assert.assertEquals("0:4", fired.get(3));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testCancel() {
+        TimingWheel wheel = new TimingWheel();
+        int handle = wheel.schedule(5, 0, 1);
+        wheel.schedule(5, 0, 2);
+        Assert.assertTrue(wheel.cancel(handle));
+        Assert.assertFalse(wheel.cancel(handle));
+        wheel.advanceTo(5, recorder);
+        Assert.assertEquals(List.of("0:2"), fired);
+    }
+
+    @Test
+    public void testListenerCancelsEventDueInSameTick() {
+        TimingWheel wheel = new TimingWheel();
+        int[] second = new int[1];
+        wheel.schedule(1, 0, 1);
+        second[0] = wheel.schedule(1, 0, 2);
+        wheel.advanceTo(1, (kind, payload) -> {
+            fired.add(kind + ":" + payload);
+            wheel.cancel(second[0]);
+            wheel.schedule(2, 1, payload);
+        });
+        Assert.assertEquals(List.of("0:1"), fired);
+        wheel.advanceTo(2, recorder);
+        Assert.assertEquals(List.of("0:1", "1:1"), fired);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testScheduleInThePast() {
+        TimingWheel wheel = new TimingWheel();
+        wheel.advanceTo(3, recorder);
+        wheel.schedule(3, 0, 0);
+    }
+}